@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.awt.event.KeyEvent;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The key listener paths that run on the AWT event thread for every key event.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraKeysListenerBenchmark
+{
+	private CameraKeysHarness harness;
+
+	private final KeyEvent zoomPressed = CameraKeysHarness.keyPressed(KeyEvent.VK_C);
+	private final KeyEvent zoomReleased = CameraKeysHarness.keyReleased(KeyEvent.VK_C);
+	private final KeyEvent northPressed = CameraKeysHarness.keyPressed(KeyEvent.VK_N);
+	private final KeyEvent northReleased = CameraKeysHarness.keyReleased(KeyEvent.VK_N);
+	private final KeyEvent unboundPressed = CameraKeysHarness.keyPressed(KeyEvent.VK_Q);
+	private final KeyEvent unboundReleased = CameraKeysHarness.keyReleased(KeyEvent.VK_Q);
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		harness = new CameraKeysHarness();
+		harness.start();
+	}
+
+	@Benchmark
+	public void zoomKeyPressedAndReleased()
+	{
+		// the release unblocks the key again so every press takes the full path
+		harness.listener.keyPressed(zoomPressed);
+		harness.listener.keyReleased(zoomReleased);
+		harness.discardCommands();
+	}
+
+	@Benchmark
+	public void zoomKeyRepeated()
+	{
+		// the key is never released, so every press after the first is an auto-repeat
+		harness.listener.keyPressed(zoomPressed);
+		harness.discardCommands();
+	}
+
+	@Benchmark
+	public void zoomKeyReleased()
+	{
+		harness.listener.keyReleased(zoomReleased);
+		harness.discardCommands();
+	}
+
+	@Benchmark
+	public void compassKeyPressedAndReleased()
+	{
+		harness.listener.keyPressed(northPressed);
+		harness.listener.keyReleased(northReleased);
+		harness.discardCommands();
+	}
+
+	@Benchmark
+	public void unboundKeyPressedAndReleased()
+	{
+		harness.listener.keyPressed(unboundPressed);
+		harness.listener.keyReleased(unboundReleased);
+	}
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.concurrent.TimeUnit;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The plugin paths that run on the client thread every frame, and the input context every key press reads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CameraKeysPluginBenchmark
+{
+	private static final String PRESS_ENTER_TO_CHAT = "Press Enter to Chat...";
+
+	private CameraKeysHarness idle;
+	private CameraKeysHarness zoomed;
+	private CameraKeysHarness hold;
+	private CameraKeysHarness set;
+	private Widget chatboxInput;
+
+	@Setup
+	public void setUp() throws Exception
+	{
+		idle = new CameraKeysHarness();
+		idle.start();
+		chatboxInput = idle.fakeClient.widget(WidgetInfo.CHATBOX_INPUT).widget;
+
+		zoomed = new CameraKeysHarness();
+		zoomed.start();
+		zoomed.commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_PRESSED);
+		zoomed.clientTick();
+
+		hold = new CameraKeysHarness();
+		hold.start();
+
+		set = new CameraKeysHarness();
+		set.config.activationType = CameraKeysConfig.ActivationType.SET;
+		set.start();
+	}
+
+	/**
+	 * A frame in the OFF state with nothing to do.
+	 */
+	@Benchmark
+	public void clientTickOff()
+	{
+		idle.clientTick();
+	}
+
+	/**
+	 * A frame in the ON state.
+	 */
+	@Benchmark
+	public void clientTickOn()
+	{
+		zoomed.clientTick();
+	}
+
+	/**
+	 * The ZOOM frame, which zooms in and moves to ON, followed by the RESET frame, which zooms out and moves to OFF.
+	 */
+	@Benchmark
+	public void clientTickZoomAndReset()
+	{
+		hold.commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_PRESSED);
+		hold.clientTick();
+		hold.commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_RELEASED);
+		hold.clientTick();
+	}
+
+	/**
+	 * The SET frame, which sets the zoom and moves to OFF.
+	 */
+	@Benchmark
+	public void clientTickSet()
+	{
+		set.commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_PRESSED);
+		set.clientTick();
+	}
+
+	/**
+	 * Publishing the input context at the end of a frame, then the read of it every key press makes.
+	 */
+	@Benchmark
+	public boolean publishInputContext()
+	{
+		idle.plugin.publishInputContext();
+		return idle.plugin.getInputContext().isChatboxFocused();
+	}
+
+	@Benchmark
+	public boolean isDialogOpen()
+	{
+		return idle.plugin.isDialogOpen();
+	}
+
+	@Benchmark
+	public void setChatboxWidgetInput()
+	{
+		idle.plugin.setChatboxWidgetInput(chatboxInput, PRESS_ENTER_TO_CHAT);
+	}
+}
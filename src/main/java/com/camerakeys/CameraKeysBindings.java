@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.util.Locale;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+import net.runelite.client.config.Keybind;
+import net.runelite.client.config.ModifierlessKeybind;
+
+/**
+ * A keycode indexed dispatch table for the keys bound in {@link CameraKeysConfig}.
+ * <p>
+ * The table is built from the config once and only rebuilt when the camerakeys config group changes,
+ * so looking up a key event never has to go through the config proxy.
+ * <p>
+ * Besides its key and alternate key, an action can have any number of keys in {@link CameraKeysConfig#extraKeys()},
+ * one action per line, e.g. {@code north = ctrl+N, NUMPAD8}. A key is its {@link KeyEvent} name without {@code VK_},
+ * optionally after modifiers. {@code #} starts a comment.
+ */
+@Slf4j
+@Singleton
+class CameraKeysBindings
+{
+	/**
+	 * Key codes below this are indexed directly, which covers every key on a standard keyboard.
+	 * Anything above (F13-F24, extended key codes of non-latin layouts) is kept in a short overflow list.
+	 */
+	private static final int DIRECT_KEY_CODES = 256;
+
+	/**
+	 * The most overflow key codes that can be bound at once.
+	 */
+	private static final int MAX_OVERFLOW_KEY_CODES = 16;
+
+	/**
+	 * Shift, ctrl, meta and alt are the consecutive bits 6-9 of {@link KeyEvent#getModifiersEx()}.
+	 */
+	private static final int MODIFIER_SHIFT = 6;
+	private static final int MODIFIER_MASK = 0xF;
+	private static final int MODIFIER_COMBINATIONS = MODIFIER_MASK + 1;
+
+	/**
+	 * The key codes of the modifier keys, in the same order as their modifier bits.
+	 */
+	private static final int[] MODIFIER_KEY_CODES = {KeyEvent.VK_SHIFT, KeyEvent.VK_CONTROL, KeyEvent.VK_META, KeyEvent.VK_ALT};
+
+	@Inject
+	private CameraKeysConfig config;
+
+	/**
+	 * The current table. Replaced as a whole on rebuild so the key thread never sees a half built table.
+	 */
+	private volatile Table table = new Table();
+
+	/**
+	 * Rebuilds the dispatch table from the current config.
+	 */
+	void rebuild()
+	{
+		Table newTable = new Table();
+
+		newTable.bind(config.zoomKey(), Action.ZOOM);
+		newTable.bind(config.zoomKeyAlt(), Action.ZOOM);
+		newTable.bind(config.northKey(), Action.NORTH);
+		newTable.bind(config.northKeyAlt(), Action.NORTH);
+		newTable.bind(config.eastKey(), Action.EAST);
+		newTable.bind(config.eastKeyAlt(), Action.EAST);
+		newTable.bind(config.southKey(), Action.SOUTH);
+		newTable.bind(config.southKeyAlt(), Action.SOUTH);
+		newTable.bind(config.westKey(), Action.WEST);
+		newTable.bind(config.westKeyAlt(), Action.WEST);
+		newTable.bind(config.levelKey(), Action.LEVEL);
+		newTable.bind(config.levelKeyAlt(), Action.LEVEL);
+		newTable.bind(config.overheadKey(), Action.OVERHEAD);
+		newTable.bind(config.overheadKeyAlt(), Action.OVERHEAD);
+		newTable.bind(config.rotateLeftKey(), Action.ROTATE_LEFT);
+		newTable.bind(config.rotateRightKey(), Action.ROTATE_RIGHT);
+		newTable.bind(config.turnLeftKey(), Action.TURN_LEFT);
+		newTable.bind(config.turnRightKey(), Action.TURN_RIGHT);
+		newTable.bind(config.macro1Key(), Action.MACRO_1);
+		newTable.bind(config.macro2Key(), Action.MACRO_2);
+		newTable.bind(config.macro3Key(), Action.MACRO_3);
+		newTable.bind(config.journalDumpKey(), Action.DUMP_JOURNAL);
+		bindExtraKeys(newTable, config.extraKeys());
+
+		table = newTable;
+	}
+
+	/**
+	 * Binds the keys of each line of the text. Lines that can not be parsed are logged and skipped.
+	 */
+	private static void bindExtraKeys(Table table, String text)
+	{
+		if (text == null)
+		{
+			return;
+		}
+
+		for (String line : text.split("\n"))
+		{
+			final int comment = line.indexOf('#');
+			if (comment != -1)
+			{
+				line = line.substring(0, comment);
+			}
+			line = line.trim();
+			if (line.isEmpty())
+			{
+				continue;
+			}
+
+			try
+			{
+				final int equals = line.indexOf('=');
+				if (equals == -1)
+				{
+					throw new IllegalArgumentException("expected an action = keys");
+				}
+
+				final Action action = action(line.substring(0, equals).trim());
+				final String[] keys = line.substring(equals + 1).split(",");
+				final Keybind[] keybinds = new Keybind[keys.length];
+				for (int i = 0; i < keys.length; i++)
+				{
+					keybinds[i] = keybind(keys[i].trim());
+				}
+				// only bind once the whole line has parsed
+				for (Keybind keybind : keybinds)
+				{
+					table.bind(keybind, action);
+				}
+			}
+			catch (IllegalArgumentException e)
+			{
+				log.warn("Skipping key binding \"{}\": {}", line, e.getMessage());
+			}
+		}
+	}
+
+	private static Action action(String name)
+	{
+		for (Action action : Action.values())
+		{
+			if (action.name().equalsIgnoreCase(name))
+			{
+				return action;
+			}
+		}
+		throw new IllegalArgumentException("unknown action " + name);
+	}
+
+	/**
+	 * @param key a key name, optionally after modifiers, e.g. {@code ctrl+shift+N}
+	 * @return the keybind, which only matches with exactly those modifiers held
+	 */
+	private static Keybind keybind(String key)
+	{
+		final String[] parts = key.split("\\+");
+		int modifiers = 0;
+		for (int i = 0; i < parts.length - 1; i++)
+		{
+			switch (parts[i].trim().toLowerCase(Locale.ROOT))
+			{
+				case "shift":
+					modifiers |= InputEvent.SHIFT_DOWN_MASK;
+					break;
+				case "ctrl":
+				case "control":
+					modifiers |= InputEvent.CTRL_DOWN_MASK;
+					break;
+				case "alt":
+					modifiers |= InputEvent.ALT_DOWN_MASK;
+					break;
+				case "meta":
+					modifiers |= InputEvent.META_DOWN_MASK;
+					break;
+				default:
+					throw new IllegalArgumentException("unknown modifier " + parts[i].trim());
+			}
+		}
+
+		final String name = parts.length == 0 ? "" : parts[parts.length - 1].trim().toUpperCase(Locale.ROOT);
+		try
+		{
+			return new Keybind(KeyEvent.class.getField("VK_" + name).getInt(null), modifiers);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalArgumentException("unknown key " + name);
+		}
+	}
+
+	/**
+	 * @param e the key pressed event.
+	 * @return a mask of the {@link Action}s bound to the key and the modifiers held with it.
+	 */
+	int pressedActions(KeyEvent e)
+	{
+		return table.pressed(keyCode(e), (e.getModifiersEx() >> MODIFIER_SHIFT) & MODIFIER_MASK);
+	}
+
+	/**
+	 * Modifiers are ignored on release so that letting go of a modifier before the key
+	 * still releases the action.
+	 *
+	 * @param e the key released event.
+	 * @return a mask of the {@link Action}s bound to the key with any modifiers.
+	 */
+	int releasedActions(KeyEvent e)
+	{
+		return table.released(keyCode(e));
+	}
+
+	/**
+	 * Keybinds store the extended key code, which is only set on events that come from the toolkit.
+	 * Synthesized events fall back to the plain key code.
+	 */
+	private static int keyCode(KeyEvent e)
+	{
+		final int extendedKeyCode = e.getExtendedKeyCode();
+		return extendedKeyCode != KeyEvent.VK_UNDEFINED ? extendedKeyCode : e.getKeyCode();
+	}
+
+	/**
+	 * The actions a key can be bound to.
+	 */
+	enum Action
+	{
+		ZOOM,
+		NORTH,
+		EAST,
+		SOUTH,
+		WEST,
+		LEVEL,
+		OVERHEAD,
+		ROTATE_LEFT,
+		ROTATE_RIGHT,
+		TURN_LEFT,
+		TURN_RIGHT,
+		MACRO_1,
+		MACRO_2,
+		MACRO_3,
+		DUMP_JOURNAL;
+
+		/**
+		 * The macro actions, indexed by macro.
+		 */
+		static final Action[] MACROS = {MACRO_1, MACRO_2, MACRO_3};
+
+		final int mask = 1 << ordinal();
+	}
+
+	private static final class Table
+	{
+		private final int[] pressed = new int[DIRECT_KEY_CODES * MODIFIER_COMBINATIONS];
+		private final int[] released = new int[DIRECT_KEY_CODES];
+
+		private final int[] overflowKeyCodes = new int[MAX_OVERFLOW_KEY_CODES];
+		private final int[] overflowPressed = new int[MAX_OVERFLOW_KEY_CODES * MODIFIER_COMBINATIONS];
+		private final int[] overflowReleased = new int[MAX_OVERFLOW_KEY_CODES];
+		private int overflowCount;
+
+		private void bind(Keybind keybind, Action action)
+		{
+			int keyCode = keybind.getKeyCode();
+			int modifiers = (keybind.getModifiers() >> MODIFIER_SHIFT) & MODIFIER_MASK;
+			boolean anyModifiers = keybind instanceof ModifierlessKeybind;
+
+			if (keyCode == KeyEvent.VK_UNDEFINED)
+			{
+				// A lone modifier key is stored as its modifier bit with no key code,
+				// so bind it to the key code of each modifier key it is made of instead.
+				for (int bit = 0; bit < MODIFIER_KEY_CODES.length; bit++)
+				{
+					if ((modifiers & (1 << bit)) != 0)
+					{
+						bind(MODIFIER_KEY_CODES[bit], modifiers, anyModifiers, action);
+					}
+				}
+			}
+			else
+			{
+				bind(keyCode, modifiers, anyModifiers, action);
+			}
+		}
+
+		private void bind(int keyCode, int modifiers, boolean anyModifiers, Action action)
+		{
+			int[] pressedTable;
+			int[] releasedTable;
+			int slot;
+
+			if (keyCode >= 0 && keyCode < DIRECT_KEY_CODES)
+			{
+				pressedTable = pressed;
+				releasedTable = released;
+				slot = keyCode;
+			}
+			else
+			{
+				slot = overflowSlot(keyCode);
+				if (slot == -1)
+				{
+					return;
+				}
+				pressedTable = overflowPressed;
+				releasedTable = overflowReleased;
+			}
+
+			int offset = slot * MODIFIER_COMBINATIONS;
+			if (anyModifiers)
+			{
+				for (int i = offset; i < offset + MODIFIER_COMBINATIONS; i++)
+				{
+					pressedTable[i] |= action.mask;
+				}
+			}
+			else
+			{
+				pressedTable[offset + modifiers] |= action.mask;
+			}
+			releasedTable[slot] |= action.mask;
+		}
+
+		private int overflowSlot(int keyCode)
+		{
+			int slot = findOverflowSlot(keyCode);
+			if (slot == -1 && overflowCount < MAX_OVERFLOW_KEY_CODES)
+			{
+				slot = overflowCount++;
+				overflowKeyCodes[slot] = keyCode;
+			}
+			return slot;
+		}
+
+		private int findOverflowSlot(int keyCode)
+		{
+			for (int i = 0; i < overflowCount; i++)
+			{
+				if (overflowKeyCodes[i] == keyCode)
+				{
+					return i;
+				}
+			}
+			return -1;
+		}
+
+		private int pressed(int keyCode, int modifiers)
+		{
+			if (keyCode >= 0 && keyCode < DIRECT_KEY_CODES)
+			{
+				return pressed[keyCode * MODIFIER_COMBINATIONS + modifiers];
+			}
+
+			int slot = findOverflowSlot(keyCode);
+			return slot == -1 ? 0 : overflowPressed[slot * MODIFIER_COMBINATIONS + modifiers];
+		}
+
+		private int released(int keyCode)
+		{
+			if (keyCode >= 0 && keyCode < DIRECT_KEY_CODES)
+			{
+				return released[keyCode];
+			}
+
+			int slot = findOverflowSlot(keyCode);
+			return slot == -1 ? 0 : overflowReleased[slot];
+		}
+	}
+}
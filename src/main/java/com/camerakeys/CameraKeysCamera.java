@@ -0,0 +1,315 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.api.ScriptID;
+import net.runelite.api.VarClientInt;
+
+/**
+ * Collects the camera changes requested during a client frame and applies them once, at the end of the frame.
+ * <p>
+ * Only the final target of each kind is applied, so mashing compass keys or holding them through
+ * key repeat runs at most one script per kind per frame.
+ * <p>
+ * With {@link CameraKeysConfig#isDirectCameraEnabled()} the yaw is set through the client's camera target
+ * instead of the compass script. The rotation keys and the pitch have no script and are always set directly. The client has no
+ * zoom setter, so the zoom always goes through {@link ScriptID#CAMERA_DO_ZOOM}.
+ */
+@Singleton
+class CameraKeysCamera
+{
+	/**
+	 * The script id for toplevelcompassop
+	 * <p>
+	 * The script that handles setting the compass direction.
+	 * <p>
+	 * from <a href="https://github.com/runelite/runelite/blob/2b5ea1f0b5c09011ce95a93b01baa2bcf3438895/runelite-client/src/main/scripts/ToplevelCompassOp.rs2asm"> TopLevelCompassOp.rs2asm</a>
+	 */
+	private static final int COMPASS_SCRIPT_ID = 1050;
+
+	/**
+	 * Marks that there is no pending change of a kind.
+	 */
+	private static final int NONE = Integer.MIN_VALUE;
+
+	/**
+	 * Marks that a change has no request time, so its latency is not recorded.
+	 */
+	static final long UNTIMED = 0;
+
+	@Inject
+	private Client client;
+
+	@Inject
+	private CameraKeysLatency latency;
+
+	@Inject
+	private CameraKeysSettings settings;
+
+	@Inject
+	private CameraKeysJournal journal;
+
+	private CameraKeysPlugin.CardinalDirections pendingCompassDirection;
+	private int pendingYaw = NONE;
+	private CameraKeysBindings.Action pendingYawAction;
+	private int pendingPitch = NONE;
+	private CameraKeysBindings.Action pendingPitchAction;
+	private int pendingZoom = NONE;
+
+	/**
+	 * When the earliest key event behind each pending change was received, or {@link #UNTIMED}.
+	 */
+	private long compassRequestNanos = UNTIMED;
+	private long yawRequestNanos = UNTIMED;
+	private long pitchRequestNanos = UNTIMED;
+	private long zoomRequestNanos = UNTIMED;
+
+	/**
+	 * Requests that were replaced by a later request in the same frame.
+	 */
+	private long coalescedCommands;
+
+	/**
+	 * Requests the compass to be set to a direction at the end of the frame.
+	 *
+	 * @param direction the direction for the compass to be set to
+	 */
+	void setCompassDirection(CameraKeysPlugin.CardinalDirections direction)
+	{
+		setCompassDirection(direction, UNTIMED);
+	}
+
+	/**
+	 * Requests the compass to be set to a direction at the end of the frame.
+	 *
+	 * @param direction    the direction for the compass to be set to
+	 * @param requestNanos the {@link System#nanoTime()} the key event was received at, or {@link #UNTIMED}
+	 */
+	void setCompassDirection(CameraKeysPlugin.CardinalDirections direction, long requestNanos)
+	{
+		if (pendingCompassDirection != null)
+		{
+			coalescedCommands++;
+		}
+		else
+		{
+			compassRequestNanos = requestNanos;
+		}
+		pendingCompassDirection = direction;
+	}
+
+	/**
+	 * Requests the camera yaw to be set at the end of the frame. A compass direction requested in the same frame wins.
+	 *
+	 * @param yaw          the yaw for the camera to be set to
+	 * @param action       the key action that requested the yaw, for its latency
+	 * @param requestNanos the {@link System#nanoTime()} the key event was received at, or {@link #UNTIMED}
+	 */
+	void setYaw(int yaw, CameraKeysBindings.Action action, long requestNanos)
+	{
+		if (pendingYaw != NONE)
+		{
+			coalescedCommands++;
+		}
+		else
+		{
+			yawRequestNanos = requestNanos;
+		}
+		pendingYaw = yaw;
+		pendingYawAction = action;
+	}
+
+	/**
+	 * Requests the camera pitch to be set at the end of the frame.
+	 *
+	 * @param pitch        the pitch for the camera to be set to
+	 * @param requestNanos the {@link System#nanoTime()} the key event was received at, or {@link #UNTIMED}
+	 */
+	void setPitch(CameraKeysPlugin.PitchPresets pitch, long requestNanos)
+	{
+		setPitch(pitch.getPitch(), pitch.getAction(), requestNanos);
+	}
+
+	/**
+	 * Requests the camera pitch to be set at the end of the frame.
+	 *
+	 * @param pitch        the pitch for the camera to be set to
+	 * @param action       the key action that requested the pitch, for its latency
+	 * @param requestNanos the {@link System#nanoTime()} the key event was received at, or {@link #UNTIMED}
+	 */
+	void setPitch(int pitch, CameraKeysBindings.Action action, long requestNanos)
+	{
+		if (pendingPitch != NONE)
+		{
+			coalescedCommands++;
+		}
+		else
+		{
+			pitchRequestNanos = requestNanos;
+		}
+		pendingPitch = pitch;
+		pendingPitchAction = action;
+	}
+
+	/**
+	 * Requests the zoom to be set at the end of the frame.
+	 *
+	 * @param zoom the zoom level
+	 */
+	void setZoom(int zoom)
+	{
+		setZoom(zoom, UNTIMED);
+	}
+
+	/**
+	 * Requests the zoom to be set at the end of the frame.
+	 *
+	 * @param zoom         the zoom level
+	 * @param requestNanos the {@link System#nanoTime()} the key event was received at, or {@link #UNTIMED}
+	 */
+	void setZoom(int zoom, long requestNanos)
+	{
+		if (pendingZoom != NONE)
+		{
+			coalescedCommands++;
+		}
+		if (zoomRequestNanos == UNTIMED)
+		{
+			zoomRequestNanos = requestNanos;
+		}
+		pendingZoom = zoom;
+	}
+
+	/**
+	 * Applies the pending changes. Must be called on the client thread.
+	 *
+	 * @return true if the zoom was changed, in which case {@link #getZoom()} returns the zoom level that was achieved,
+	 * as the zoom script runs synchronously
+	 */
+	boolean flush()
+	{
+		if (pendingCompassDirection != null)
+		{
+			if (settings.get().directCameraEnabled)
+			{
+				client.setCameraYawTarget(pendingCompassDirection.getYaw());
+			}
+			else
+			{
+				client.runScript(COMPASS_SCRIPT_ID, pendingCompassDirection.getValue());
+				journal.record(CameraKeysJournal.Event.SCRIPT, COMPASS_SCRIPT_ID, pendingCompassDirection.getValue());
+			}
+			if (compassRequestNanos != UNTIMED)
+			{
+				latency.record(pendingCompassDirection.getAction(), compassRequestNanos, System.nanoTime());
+				compassRequestNanos = UNTIMED;
+			}
+			pendingCompassDirection = null;
+		}
+		else if (pendingYaw != NONE)
+		{
+			client.setCameraYawTarget(pendingYaw);
+			if (yawRequestNanos != UNTIMED)
+			{
+				latency.record(pendingYawAction, yawRequestNanos, System.nanoTime());
+			}
+		}
+		yawRequestNanos = UNTIMED;
+		pendingYaw = NONE;
+		pendingYawAction = null;
+
+		if (pendingPitch != NONE)
+		{
+			client.setCameraPitchTarget(pendingPitch);
+			if (pitchRequestNanos != UNTIMED)
+			{
+				latency.record(pendingPitchAction, pitchRequestNanos, System.nanoTime());
+				pitchRequestNanos = UNTIMED;
+			}
+			pendingPitch = NONE;
+			pendingPitchAction = null;
+		}
+
+		if (pendingZoom != NONE)
+		{
+			client.runScript(ScriptID.CAMERA_DO_ZOOM, pendingZoom, pendingZoom);
+			journal.record(CameraKeysJournal.Event.SCRIPT, ScriptID.CAMERA_DO_ZOOM, pendingZoom);
+			if (zoomRequestNanos != UNTIMED)
+			{
+				latency.record(CameraKeysBindings.Action.ZOOM, zoomRequestNanos, System.nanoTime());
+				zoomRequestNanos = UNTIMED;
+			}
+			pendingZoom = NONE;
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Drops any pending changes.
+	 */
+	void reset()
+	{
+		pendingCompassDirection = null;
+		pendingYaw = NONE;
+		pendingYawAction = null;
+		pendingPitch = NONE;
+		pendingPitchAction = null;
+		pendingZoom = NONE;
+		compassRequestNanos = UNTIMED;
+		yawRequestNanos = UNTIMED;
+		pitchRequestNanos = UNTIMED;
+		zoomRequestNanos = UNTIMED;
+	}
+
+	/**
+	 * @return the camera zoom level from the client vars, for the fixed or resizable viewport the client is in
+	 */
+	int getZoom()
+	{
+		return client.getVarcIntValue(client.isResized() ? VarClientInt.CAMERA_ZOOM_RESIZABLE_VIEWPORT : VarClientInt.CAMERA_ZOOM_FIXED_VIEWPORT);
+	}
+
+	/**
+	 * @return the zoom level the camera will have at the end of the frame
+	 */
+	int getTargetZoom()
+	{
+		return pendingZoom != NONE ? pendingZoom : getZoom();
+	}
+
+	/**
+	 * @return how many camera requests were dropped because a later request in the same frame replaced them
+	 */
+	long getCoalescedCommands()
+	{
+		return coalescedCommands;
+	}
+}
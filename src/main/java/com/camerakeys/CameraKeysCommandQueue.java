@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.concurrent.atomic.AtomicLong;
+import javax.inject.Singleton;
+
+/**
+ * A bounded single-producer/single-consumer ring of {@link Command}s sent from the key listener to the client thread.
+ * <p>
+ * The AWT event thread is the only producer and the client thread, which drains the ring at the start of every
+ * client tick, is the only consumer. Commands are packed into ints so offering one allocates nothing.
+ */
+@Singleton
+class CameraKeysCommandQueue
+{
+	/**
+	 * Returned by {@link #poll()} when the queue is empty.
+	 */
+	static final int EMPTY = -1;
+
+	private static final int CAPACITY = 256;
+	private static final int INDEX_MASK = CAPACITY - 1;
+
+	private static final int COMMAND_BITS = 8;
+	private static final int COMMAND_MASK = (1 << COMMAND_BITS) - 1;
+
+	private static final Command[] COMMANDS = Command.values();
+
+	private final int[] ring = new int[CAPACITY];
+
+	/**
+	 * The {@link System#nanoTime()} each slot was offered at.
+	 */
+	private final long[] offeredNanos = new long[CAPACITY];
+
+	/**
+	 * The {@link java.awt.event.InputEvent#getWhen()} of the event behind each slot, or 0.
+	 */
+	private final long[] eventMillis = new long[CAPACITY];
+
+	/**
+	 * The next slot to read. Only written by the consumer.
+	 */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * The next slot to write. Only written by the producer.
+	 */
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Cached copy of {@link #head} so the producer only reads the consumer's counter when the ring looks full.
+	 */
+	private long headCache;
+
+	/**
+	 * Commands that could not be queued because the ring was full.
+	 */
+	private final AtomicLong dropped = new AtomicLong();
+
+	/**
+	 * When the command last returned by {@link #poll()} was offered. Only used by the consumer.
+	 */
+	private long polledNanos;
+	private long polledEventMillis;
+
+	/**
+	 * Queues a command. Must only be called from the producer thread.
+	 *
+	 * @param command  the command
+	 * @param argument a non-negative argument for the command
+	 * @return false if the ring is full and the command was dropped
+	 */
+	boolean offer(Command command, int argument)
+	{
+		return offer(command, argument, 0);
+	}
+
+	/**
+	 * Queues a command for an input event. Must only be called from the producer thread.
+	 *
+	 * @param command     the command
+	 * @param argument    a non-negative argument for the command
+	 * @param eventMillis the {@link java.awt.event.InputEvent#getWhen()} of the event
+	 * @return false if the ring is full and the command was dropped
+	 */
+	boolean offer(Command command, int argument, long eventMillis)
+	{
+		final long currentTail = tail.get();
+		if (currentTail - headCache >= CAPACITY)
+		{
+			headCache = head.get();
+			if (currentTail - headCache >= CAPACITY)
+			{
+				dropped.incrementAndGet();
+				return false;
+			}
+		}
+
+		final int index = (int) currentTail & INDEX_MASK;
+		ring[index] = (argument << COMMAND_BITS) | command.ordinal();
+		offeredNanos[index] = System.nanoTime();
+		this.eventMillis[index] = eventMillis;
+		// publish the slot to the consumer
+		tail.lazySet(currentTail + 1);
+		return true;
+	}
+
+	/**
+	 * Queues a command with no argument. Must only be called from the producer thread.
+	 *
+	 * @param command the command
+	 * @return false if the ring is full and the command was dropped
+	 */
+	boolean offer(Command command)
+	{
+		return offer(command, 0);
+	}
+
+	/**
+	 * Takes the oldest command. Must only be called from the consumer thread.
+	 *
+	 * @return the packed command, or {@link #EMPTY}
+	 */
+	int poll()
+	{
+		final long currentHead = head.get();
+		if (currentHead == tail.get())
+		{
+			return EMPTY;
+		}
+
+		final int index = (int) currentHead & INDEX_MASK;
+		final int packed = ring[index];
+		polledNanos = offeredNanos[index];
+		polledEventMillis = eventMillis[index];
+		// hand the slot back to the producer
+		head.lazySet(currentHead + 1);
+		return packed;
+	}
+
+	/**
+	 * Discards any queued commands. Must only be called while neither the producer nor the consumer is running.
+	 */
+	void clear()
+	{
+		head.set(tail.get());
+	}
+
+	/**
+	 * @return how many commands have been dropped because the ring was full
+	 */
+	long getDropped()
+	{
+		return dropped.get();
+	}
+
+	/**
+	 * Must only be called from the consumer thread.
+	 *
+	 * @return the {@link System#nanoTime()} the command last returned by {@link #poll()} was offered at
+	 */
+	long getPolledNanos()
+	{
+		return polledNanos;
+	}
+
+	/**
+	 * Must only be called from the consumer thread.
+	 *
+	 * @return the {@link java.awt.event.InputEvent#getWhen()} of the command last returned by {@link #poll()}, or 0
+	 */
+	long getPolledEventMillis()
+	{
+		return polledEventMillis;
+	}
+
+	/**
+	 * @param packed a command returned by {@link #poll()}
+	 * @return the command
+	 */
+	static Command command(int packed)
+	{
+		return COMMANDS[packed & COMMAND_MASK];
+	}
+
+	/**
+	 * @param packed a command returned by {@link #poll()}
+	 * @return the argument the command was offered with
+	 */
+	static int argument(int packed)
+	{
+		return packed >>> COMMAND_BITS;
+	}
+
+	enum Command
+	{
+		/**
+		 * The zoom key was pressed.
+		 */
+		ZOOM_PRESSED,
+		/**
+		 * The zoom key was released.
+		 */
+		ZOOM_RELEASED,
+		/**
+		 * A compass key was pressed. The argument is the {@link CameraKeysPlugin.CardinalDirections} ordinal.
+		 */
+		COMPASS,
+		/**
+		 * A pitch key was pressed. The argument is the {@link CameraKeysPlugin.PitchPresets} ordinal.
+		 */
+		PITCH,
+		/**
+		 * A rotate key was pressed. The argument is 1 for left and 0 for right.
+		 */
+		ROTATE_PRESSED,
+		/**
+		 * A rotate key was released. The argument is 1 for left and 0 for right.
+		 */
+		ROTATE_RELEASED,
+		/**
+		 * A turn key was pressed. The argument is 1 for left and 0 for right.
+		 */
+		TURN,
+		/**
+		 * A macro key was pressed. The argument is the macro index.
+		 */
+		MACRO,
+		/**
+		 * The mouse wheel was scrolled.
+		 */
+		SCROLLED,
+		/**
+		 * The user started or stopped typing. The argument is 1 when typing.
+		 */
+		SET_TYPING,
+		/**
+		 * Unlock the chat for typing.
+		 */
+		UNLOCK_CHAT,
+		/**
+		 * Lock the chat.
+		 */
+		LOCK_CHAT,
+		/**
+		 * Clear any typed text, then lock the chat.
+		 */
+		CLEAR_AND_LOCK_CHAT,
+		/**
+		 * Write the event journal to a file.
+		 */
+		DUMP_JOURNAL
+	}
+}
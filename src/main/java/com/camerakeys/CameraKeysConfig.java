@@ -31,12 +31,22 @@ import net.runelite.client.config.Config;
 import net.runelite.client.config.ConfigGroup;
 import net.runelite.client.config.ConfigItem;
 import net.runelite.client.config.ConfigSection;
+import net.runelite.client.config.Keybind;
 import net.runelite.client.config.ModifierlessKeybind;
 import net.runelite.client.config.Range;
+import net.runelite.client.config.Units;
 
-@ConfigGroup("camerakeys")
+@ConfigGroup(CameraKeysConfig.GROUP)
 public interface CameraKeysConfig extends Config
 {
+	String GROUP = "camerakeys";
+
+	/**
+	 * The zoom levels the zoom key, macros and region profiles can be set to.
+	 */
+	int MIN_ZOOM = -272;
+	int MAX_ZOOM = 1300;
+
 	@ConfigSection(
 		name = "Zoom Key",
 		description = "Zoom Key settings",
@@ -51,6 +61,41 @@ public interface CameraKeysConfig extends Config
 		closedByDefault = false
 	)
 	String CompassKeySection = "CompassKeys";
+	@ConfigSection(
+		name = "Rotation Keys",
+		description = "Keys that turn the camera smoothly",
+		position = 2,
+		closedByDefault = true
+	)
+	String RotationKeySection = "RotationKeys";
+	@ConfigSection(
+		name = "Alternate Keys",
+		description = "Additional keys and key combinations for each action",
+		position = 3,
+		closedByDefault = true
+	)
+	String AlternateKeySection = "AlternateKeys";
+	@ConfigSection(
+		name = "Region Profiles",
+		description = "Zoom levels and compass directions for specific areas",
+		position = 4,
+		closedByDefault = true
+	)
+	String RegionProfileSection = "RegionProfiles";
+	@ConfigSection(
+		name = "Macros",
+		description = "Keys that run a sequence of camera operations",
+		position = 5,
+		closedByDefault = true
+	)
+	String MacroSection = "Macros";
+	@ConfigSection(
+		name = "Debug",
+		description = "Diagnostics for the plugin",
+		position = 6,
+		closedByDefault = true
+	)
+	String DebugSection = "Debug";
 
 	@ConfigItem(
 		keyName = "zoom",
@@ -60,8 +105,8 @@ public interface CameraKeysConfig extends Config
 		position = 1
 	)
 	@Range(
-		min = -272,
-		max = 1300
+		min = MIN_ZOOM,
+		max = MAX_ZOOM
 	)
 	default int zoom()
 	{
@@ -104,6 +149,59 @@ public interface CameraKeysConfig extends Config
 		return true;
 	}
 
+	@ConfigItem(
+		position = 4,
+		keyName = "zoomReadout",
+		name = "Zoom Readout",
+		section = ZoomKeySection,
+		description = "Shows the current zoom, the zoom key's zoom and the compass heading next to the zoom icon"
+	)
+	default boolean isZoomReadoutEnabled()
+	{
+		return true;
+	}
+
+	@ConfigItem(
+		position = 5,
+		keyName = "zoomAnimation",
+		name = "Smooth Zoom",
+		section = ZoomKeySection,
+		description = "Animates the zoom level change instead of jumping straight to it"
+	)
+	default boolean isZoomAnimationEnabled()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 6,
+		keyName = "zoomAnimationDuration",
+		name = "Smooth Zoom Duration",
+		section = ZoomKeySection,
+		description = "How long the smooth zoom animation takes"
+	)
+	@Units(Units.MILLISECONDS)
+	@Range(
+		min = 0,
+		max = 2000
+	)
+	default int zoomAnimationDuration()
+	{
+		return 150;
+	}
+
+	@ConfigItem(
+		position = 7,
+		keyName = "zoomAnimationEasing",
+		name = "Smooth Zoom Easing",
+		section = ZoomKeySection,
+		description = "The speed curve of the smooth zoom animation"
+	)
+	default ZoomEasing zoomAnimationEasing()
+	{
+		return ZoomEasing.EASE_OUT;
+	}
+
 	@ConfigItem(
 		position = 0,
 		keyName = "northKey",
@@ -152,6 +250,392 @@ public interface CameraKeysConfig extends Config
 		return new ModifierlessKeybind(KeyEvent.VK_UNDEFINED, 0);
 	}
 
+	@ConfigItem(
+		position = 2,
+		keyName = "levelKey",
+		name = "Level",
+		section = CompassKeySection,
+		description = "The key that tilts the camera down to look level"
+	)
+	default ModifierlessKeybind levelKey()
+	{
+		return new ModifierlessKeybind(KeyEvent.VK_UNDEFINED, 0);
+	}
+
+	@ConfigItem(
+		position = 3,
+		keyName = "overheadKey",
+		name = "Overhead",
+		section = CompassKeySection,
+		description = "The key that tilts the camera up to look from overhead"
+	)
+	default ModifierlessKeybind overheadKey()
+	{
+		return new ModifierlessKeybind(KeyEvent.VK_UNDEFINED, 0);
+	}
+
+	@ConfigItem(
+		position = 4,
+		keyName = "directCamera",
+		name = "Direct Camera",
+		section = CompassKeySection,
+		description = "Turns the camera by setting its target directly instead of running the compass script. Turn this off if the compass keys stop turning the camera after a game update"
+	)
+	default boolean isDirectCameraEnabled()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 0,
+		keyName = "rotateLeftKey",
+		name = "Rotate Left",
+		section = RotationKeySection,
+		description = "Turns the camera left while held"
+	)
+	default ModifierlessKeybind rotateLeftKey()
+	{
+		return new ModifierlessKeybind(KeyEvent.VK_UNDEFINED, 0);
+	}
+
+	@ConfigItem(
+		position = 1,
+		keyName = "rotateRightKey",
+		name = "Rotate Right",
+		section = RotationKeySection,
+		description = "Turns the camera right while held"
+	)
+	default ModifierlessKeybind rotateRightKey()
+	{
+		return new ModifierlessKeybind(KeyEvent.VK_UNDEFINED, 0);
+	}
+
+	@ConfigItem(
+		position = 2,
+		keyName = "turnLeftKey",
+		name = "Turn Left",
+		section = RotationKeySection,
+		description = "Turns the camera left by the turn angle"
+	)
+	default ModifierlessKeybind turnLeftKey()
+	{
+		return new ModifierlessKeybind(KeyEvent.VK_UNDEFINED, 0);
+	}
+
+	@ConfigItem(
+		position = 3,
+		keyName = "turnRightKey",
+		name = "Turn Right",
+		section = RotationKeySection,
+		description = "Turns the camera right by the turn angle"
+	)
+	default ModifierlessKeybind turnRightKey()
+	{
+		return new ModifierlessKeybind(KeyEvent.VK_UNDEFINED, 0);
+	}
+
+	@Units("\u00b0")
+	@Range(
+		min = 1,
+		max = 180
+	)
+	@ConfigItem(
+		position = 4,
+		keyName = "turnAngle",
+		name = "Turn Angle",
+		section = RotationKeySection,
+		description = "How far the turn keys turn the camera"
+	)
+	default int turnAngle()
+	{
+		return 45;
+	}
+
+	@Units("\u00b0/s")
+	@Range(
+		min = 1,
+		max = 1440
+	)
+	@ConfigItem(
+		position = 5,
+		keyName = "rotationSpeed",
+		name = "Rotation Speed",
+		section = RotationKeySection,
+		description = "The top speed the rotation and turn keys turn the camera at"
+	)
+	default int rotationSpeed()
+	{
+		return 180;
+	}
+
+	@Units("\u00b0/s\u00b2")
+	@Range(
+		min = 0,
+		max = 100000
+	)
+	@ConfigItem(
+		position = 6,
+		keyName = "rotationAcceleration",
+		name = "Rotation Acceleration",
+		section = RotationKeySection,
+		description = "How quickly the camera speeds up to the rotation speed, 0 to start at full speed"
+	)
+	default int rotationAcceleration()
+	{
+		return 720;
+	}
+
+	@ConfigItem(
+		position = 0,
+		keyName = "zoomKeyAlt",
+		name = "Zoom Key",
+		section = AlternateKeySection,
+		description = "An additional key or key combination that activates/toggles zoom level"
+	)
+	default Keybind zoomKeyAlt()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 1,
+		keyName = "northKeyAlt",
+		name = "North",
+		section = AlternateKeySection,
+		description = "An additional key or key combination that faces the camera north"
+	)
+	default Keybind northKeyAlt()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 2,
+		keyName = "eastKeyAlt",
+		name = "East",
+		section = AlternateKeySection,
+		description = "An additional key or key combination that faces the camera east"
+	)
+	default Keybind eastKeyAlt()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 3,
+		keyName = "southKeyAlt",
+		name = "South",
+		section = AlternateKeySection,
+		description = "An additional key or key combination that faces the camera south"
+	)
+	default Keybind southKeyAlt()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 4,
+		keyName = "westKeyAlt",
+		name = "West",
+		section = AlternateKeySection,
+		description = "An additional key or key combination that faces the camera west"
+	)
+	default Keybind westKeyAlt()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 5,
+		keyName = "levelKeyAlt",
+		name = "Level",
+		section = AlternateKeySection,
+		description = "An additional key or key combination that tilts the camera down to look level"
+	)
+	default Keybind levelKeyAlt()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 6,
+		keyName = "overheadKeyAlt",
+		name = "Overhead",
+		section = AlternateKeySection,
+		description = "An additional key or key combination that tilts the camera up to look from overhead"
+	)
+	default Keybind overheadKeyAlt()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 7,
+		keyName = "extraKeys",
+		name = "More Keys",
+		section = AlternateKeySection,
+		description = "Any number of further keys, one action per line: action = keys separated by commas. A key is its Java key name, optionally after shift+, ctrl+, alt+ or meta+.<br>"
+			+ "The actions are zoom, north, east, south, west, level, overhead, rotate_left, rotate_right, turn_left, turn_right, macro_1, macro_2, macro_3 and dump_journal.<br>"
+			+ "e.g. north = ctrl+N, NUMPAD8"
+	)
+	default String extraKeys()
+	{
+		return "";
+	}
+
+	@ConfigItem(
+		position = 0,
+		keyName = "regionProfiles",
+		name = "Profiles",
+		section = RegionProfileSection,
+		description = "One region per line: region id = zoom level, optionally followed by a direction the compass is set to on entering.<br>"
+			+ "e.g. 12598 = 700 north"
+	)
+	default String regionProfiles()
+	{
+		return "";
+	}
+
+	@ConfigItem(
+		position = 0,
+		keyName = "macro1Key",
+		name = "Macro 1 Key",
+		section = MacroSection,
+		description = "The key that runs macro 1"
+	)
+	default Keybind macro1Key()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 1,
+		keyName = "macro1",
+		name = "Macro 1",
+		section = MacroSection,
+		description = "Camera operations run in order, separated by commas: north, east, south, west, level, overhead, pitch &lt;value&gt; and zoom &lt;value&gt;<br>"
+			+ "e.g. north, overhead, zoom 200"
+	)
+	default String macro1()
+	{
+		return "";
+	}
+
+	@ConfigItem(
+		position = 2,
+		keyName = "macro2Key",
+		name = "Macro 2 Key",
+		section = MacroSection,
+		description = "The key that runs macro 2"
+	)
+	default Keybind macro2Key()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 3,
+		keyName = "macro2",
+		name = "Macro 2",
+		section = MacroSection,
+		description = "Camera operations run in order, separated by commas: north, east, south, west, level, overhead, pitch &lt;value&gt; and zoom &lt;value&gt;<br>"
+			+ "e.g. north, overhead, zoom 200"
+	)
+	default String macro2()
+	{
+		return "";
+	}
+
+	@ConfigItem(
+		position = 4,
+		keyName = "macro3Key",
+		name = "Macro 3 Key",
+		section = MacroSection,
+		description = "The key that runs macro 3"
+	)
+	default Keybind macro3Key()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 5,
+		keyName = "macro3",
+		name = "Macro 3",
+		section = MacroSection,
+		description = "Camera operations run in order, separated by commas: north, east, south, west, level, overhead, pitch &lt;value&gt; and zoom &lt;value&gt;<br>"
+			+ "e.g. north, overhead, zoom 200"
+	)
+	default String macro3()
+	{
+		return "";
+	}
+
+	@ConfigItem(
+		position = 0,
+		keyName = "latencyDebug",
+		name = "Key Latency",
+		section = DebugSection,
+		description = "Shows how long each key takes to move the camera in an overlay, and logs a summary every minute"
+	)
+	default boolean isLatencyDebugEnabled()
+	{
+		return false;
+	}
+
+	@ConfigItem(
+		position = 1,
+		keyName = "stageTimings",
+		name = "Stage Timings",
+		section = DebugSection,
+		description = "Shows the average and worst time each part of the plugin takes per frame in an overlay, and how many camera requests a later one in the same frame replaced"
+	)
+	default boolean isStageTimingsEnabled()
+	{
+		return false;
+	}
+
+	@Units("\u00b5s")
+	@Range(
+		min = 0,
+		max = 100000
+	)
+	@ConfigItem(
+		position = 2,
+		keyName = "stageBudget",
+		name = "Stage Budget",
+		section = DebugSection,
+		description = "Logs a warning when a part of the plugin takes longer than this in a frame, 0 to never warn. 500 catches a slow frame"
+	)
+	default int stageBudget()
+	{
+		return 0;
+	}
+
+	@ConfigItem(
+		position = 3,
+		keyName = "journalDumpKey",
+		name = "Dump Event Journal",
+		section = DebugSection,
+		description = "Writes the recent key presses and state changes to a file in the .runelite/camerakeys folder"
+	)
+	default Keybind journalDumpKey()
+	{
+		return Keybind.NOT_SET;
+	}
+
+	@ConfigItem(
+		position = 4,
+		keyName = "journalDumpOnShutdown",
+		name = "Dump Journal On Stop",
+		section = DebugSection,
+		description = "Writes the event journal to a file when the plugin is stopped"
+	)
+	default boolean isJournalDumpOnShutdownEnabled()
+	{
+		return false;
+	}
+
 	@AllArgsConstructor
 	enum ActivationType
 	{
@@ -167,4 +651,37 @@ public interface CameraKeysConfig extends Config
 			return value;
 		}
 	}
+
+	@AllArgsConstructor
+	enum ZoomEasing
+	{
+		LINEAR("Linear"),
+		EASE_OUT("Ease Out"),
+		EASE_IN_OUT("Ease In/Out");
+
+		private final String value;
+
+		/**
+		 * @param t the animation progress, from 0 to 1
+		 * @return the eased progress, from 0 to 1
+		 */
+		double ease(double t)
+		{
+			switch (this)
+			{
+				case EASE_OUT:
+					return 1 - (1 - t) * (1 - t) * (1 - t);
+				case EASE_IN_OUT:
+					return t < 0.5 ? 4 * t * t * t : 1 - 4 * (1 - t) * (1 - t) * (1 - t);
+				default:
+					return t;
+			}
+		}
+
+		@Override
+		public String toString()
+		{
+			return value;
+		}
+	}
 }
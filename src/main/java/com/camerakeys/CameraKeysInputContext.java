@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+/**
+ * An immutable view of the client state the key listener needs, published by the client thread once per client tick.
+ * <p>
+ * There are only a few combinations of state, so every instance is built up front and publishing one allocates nothing.
+ */
+final class CameraKeysInputContext
+{
+	private static final int CHATBOX_FOCUSED = 1;
+	private static final int DIALOG_OPEN = 1 << 1;
+	private static final int TYPING = 1 << 2;
+	private static final int WORLD_MAP_SEARCH_FOCUSED = 1 << 3;
+
+	private static final CameraKeysInputContext[] CONTEXTS = new CameraKeysInputContext[1 << 4];
+
+	static
+	{
+		for (int flags = 0; flags < CONTEXTS.length; flags++)
+		{
+			CONTEXTS[flags] = new CameraKeysInputContext(flags);
+		}
+	}
+
+	/**
+	 * The context before the client thread has published one, which ignores every key.
+	 */
+	static final CameraKeysInputContext UNFOCUSED = CONTEXTS[0];
+
+	private final int flags;
+
+	private CameraKeysInputContext(int flags)
+	{
+		this.flags = flags;
+	}
+
+	/**
+	 * @param chatboxFocused        if the chatbox has the exclusive input
+	 * @param dialogOpen            if a dialog that grabs numerical input is open
+	 * @param typing                if the user is typing in the unlocked game chat
+	 * @param worldMapSearchFocused if the world map search box has taken the chat input
+	 * @return the context for the state
+	 */
+	static CameraKeysInputContext of(boolean chatboxFocused, boolean dialogOpen, boolean typing, boolean worldMapSearchFocused)
+	{
+		return CONTEXTS[(chatboxFocused ? CHATBOX_FOCUSED : 0)
+			| (dialogOpen ? DIALOG_OPEN : 0)
+			| (typing ? TYPING : 0)
+			| (worldMapSearchFocused ? WORLD_MAP_SEARCH_FOCUSED : 0)];
+	}
+
+	boolean isChatboxFocused()
+	{
+		return (flags & CHATBOX_FOCUSED) != 0;
+	}
+
+	boolean isDialogOpen()
+	{
+		return (flags & DIALOG_OPEN) != 0;
+	}
+
+	boolean isTyping()
+	{
+		return (flags & TYPING) != 0;
+	}
+
+	boolean isWorldMapSearchFocused()
+	{
+		return (flags & WORLD_MAP_SEARCH_FOCUSED) != 0;
+	}
+
+	@Override
+	public String toString()
+	{
+		return "CameraKeysInputContext(chatboxFocused=" + isChatboxFocused()
+			+ ", dialogOpen=" + isDialogOpen()
+			+ ", typing=" + isTyping()
+			+ ", worldMapSearchFocused=" + isWorldMapSearchFocused() + ")";
+	}
+}
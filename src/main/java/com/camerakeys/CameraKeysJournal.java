@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import javax.inject.Singleton;
+
+/**
+ * A fixed size ring of the last {@link #CAPACITY} input events and state changes, for working out what happened
+ * when the zoom gets stuck or the chat stays locked.
+ * <p>
+ * Records are two longs, the {@link System#nanoTime()} and the {@link Event} packed with two int arguments, so
+ * recording one allocates nothing. Any thread can record: a writer claims a slot with a single atomic increment
+ * and publishes it with ordered stores, and {@link #dump} skips slots that are being overwritten while it reads them.
+ * A writer stalled for a whole lap of the ring can leave an older record in a slot, which the dump skips too.
+ * <p>
+ * The dump file is big endian: a {@link #HEADER_BYTES} byte header of the magic, version, record count, records lost
+ * to the ring wrapping, then the nanoTime and wall clock millis of the dump; followed by the records oldest first.
+ * {@link CameraKeysJournalDecoder} turns it back into text.
+ */
+@Singleton
+class CameraKeysJournal
+{
+	/**
+	 * "CKJ1"
+	 */
+	static final int MAGIC = 0x434B4A31;
+	static final int VERSION = 1;
+	static final int HEADER_BYTES = 32;
+	static final int RECORD_BYTES = 16;
+
+	static final int CAPACITY = 4096;
+	private static final int INDEX_MASK = CAPACITY - 1;
+
+	/**
+	 * Marks a slot that is being written.
+	 */
+	private static final long BUSY = -1;
+
+	private static final int ARGUMENT_BITS = 24;
+	private static final long ARGUMENT_MASK = (1L << ARGUMENT_BITS) - 1;
+
+	private static final Event[] EVENTS = Event.values();
+
+	private final AtomicLongArray times = new AtomicLongArray(CAPACITY);
+	private final AtomicLongArray payloads = new AtomicLongArray(CAPACITY);
+
+	/**
+	 * The sequence number plus one of the record in each slot, 0 if the slot has never been written or
+	 * {@link #BUSY} while it is being written.
+	 */
+	private final AtomicLongArray published = new AtomicLongArray(CAPACITY);
+
+	private final AtomicLong next = new AtomicLong();
+
+	/**
+	 * Records an event. Safe to call from any thread.
+	 *
+	 * @param event the event
+	 * @param a     the first argument, the low 24 bits are kept
+	 * @param b     the second argument
+	 */
+	void record(Event event, int a, int b)
+	{
+		final long sequence = next.getAndIncrement();
+		final int slot = (int) sequence & INDEX_MASK;
+		// ordered stores: a reader that sees any of the new values also sees the slot as busy or republished
+		published.lazySet(slot, BUSY);
+		times.lazySet(slot, System.nanoTime());
+		payloads.lazySet(slot, pack(event, a, b));
+		published.lazySet(slot, sequence + 1);
+	}
+
+	/**
+	 * Writes the records in the ring to a file through a memory mapped buffer.
+	 *
+	 * @param file the file to write, replaced if it exists
+	 * @return how many records were written
+	 * @throws IOException if the file could not be written
+	 */
+	int dump(File file) throws IOException
+	{
+		final long end = next.get();
+		final long first = Math.max(0, end - CAPACITY);
+		final long[] recordTimes = new long[(int) (end - first)];
+		final long[] recordPayloads = new long[recordTimes.length];
+
+		int count = 0;
+		for (long sequence = first; sequence < end; sequence++)
+		{
+			final int slot = (int) sequence & INDEX_MASK;
+			final long before = published.get(slot);
+			final long time = times.get(slot);
+			final long payload = payloads.get(slot);
+			// skip records that were not finished when the dump started, or were overwritten while being read
+			if (before == sequence + 1 && published.get(slot) == before)
+			{
+				recordTimes[count] = time;
+				recordPayloads[count] = payload;
+				count++;
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+			StandardOpenOption.READ, StandardOpenOption.WRITE))
+		{
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + (long) count * RECORD_BYTES);
+			buffer.putInt(MAGIC);
+			buffer.putInt(VERSION);
+			buffer.putInt(count);
+			buffer.putInt((int) Math.min(first, Integer.MAX_VALUE));
+			buffer.putLong(System.nanoTime());
+			buffer.putLong(System.currentTimeMillis());
+			for (int i = 0; i < count; i++)
+			{
+				buffer.putLong(recordTimes[i]);
+				buffer.putLong(recordPayloads[i]);
+			}
+			buffer.force();
+		}
+		return count;
+	}
+
+	static long pack(Event event, int a, int b)
+	{
+		return ((long) event.ordinal() << 56) | ((a & ARGUMENT_MASK) << 32) | (b & 0xFFFFFFFFL);
+	}
+
+	static Event event(long payload)
+	{
+		return EVENTS[(int) (payload >>> 56)];
+	}
+
+	static int a(long payload)
+	{
+		return (int) ((payload >>> 32) & ARGUMENT_MASK);
+	}
+
+	static int b(long payload)
+	{
+		return (int) payload;
+	}
+
+	enum Event
+	{
+		/**
+		 * The plugin started.
+		 */
+		STARTED,
+		/**
+		 * The plugin stopped.
+		 */
+		STOPPED,
+		/**
+		 * A bound key or a chat key was pressed, not counting auto-repeat. Keys pressed while typing, or with a dialog
+		 * or bank pin open, are not recorded. a is the extended modifiers, b the key code.
+		 */
+		KEY_PRESSED,
+		/**
+		 * A bound key or a chat key was released, under the same conditions as {@link #KEY_PRESSED}. a is the extended
+		 * modifiers, b the key code.
+		 */
+		KEY_RELEASED,
+		/**
+		 * The mouse wheel was scrolled. b is the wheel rotation.
+		 */
+		SCROLLED,
+		/**
+		 * The zoom state changed. a is the old {@link CameraKeysZoomStateMachine.ZoomState} ordinal, b the new.
+		 */
+		ZOOM_STATE,
+		/**
+		 * The chat input handling state changed. a is the old {@link CameraKeysPlugin.ChatInputHandlingState}
+		 * ordinal, b the new.
+		 */
+		CHAT_STATE,
+		/**
+		 * The client thread's typing state changed. a is 1 when typing.
+		 */
+		TYPING,
+		/**
+		 * A camera script was run. a is the script id, b its first argument.
+		 */
+		SCRIPT
+	}
+}
@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.awt.event.KeyEvent;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Turns a {@link CameraKeysJournal} dump back into one line of text per record, or into a {@code .trace}
+ * file that the key trace replay tests can run.
+ * <p>
+ * Run with the dump file as the argument, with the plugin on the classpath. With {@code --trace} first it
+ * prints the trace instead.
+ */
+final class CameraKeysJournalDecoder
+{
+	private static final CameraKeysZoomStateMachine.ZoomState[] ZOOM_STATES = CameraKeysZoomStateMachine.ZoomState.values();
+	private static final CameraKeysPlugin.ChatInputHandlingState[] CHAT_STATES = CameraKeysPlugin.ChatInputHandlingState.values();
+
+	/**
+	 * The zoom change a trace gives each scroll wheel notch. The journal only has the wheel rotation and the
+	 * game's step depends on its zoom speed setting, so this is a rough one third of the cancel threshold.
+	 */
+	static final int TRACE_ZOOM_PER_NOTCH = 17;
+
+	private CameraKeysJournalDecoder()
+	{
+	}
+
+	public static void main(String[] args) throws IOException
+	{
+		final boolean trace = args.length == 2 && args[0].equals("--trace");
+		if (args.length != 1 && !trace)
+		{
+			System.err.println("usage: CameraKeysJournalDecoder [--trace] <journal file>");
+			System.exit(1);
+		}
+
+		final File file = new File(args[args.length - 1]);
+		for (String line : trace ? toTrace(file) : decode(file))
+		{
+			System.out.println(line);
+		}
+	}
+
+	/**
+	 * @param file a journal dump
+	 * @return a line for the header, then a line per record, oldest first
+	 * @throws IOException if the file can not be read or is not a journal dump
+	 */
+	static List<String> decode(File file) throws IOException
+	{
+		final Dump dump = read(file);
+		final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+		final List<String> lines = new ArrayList<>(dump.count + 1);
+		lines.add("Dumped " + format.format(new Date(dump.dumpMillis)) + ", " + dump.count + " records, " + dump.lost + " older records lost");
+		for (int i = 0; i < dump.count; i++)
+		{
+			// nanoTime has no epoch, so place each record relative to the dump
+			final long millis = dump.dumpMillis - TimeUnit.NANOSECONDS.toMillis(dump.dumpNanos - dump.times[i]);
+			lines.add(format.format(new Date(millis)) + " " + describe(dump.payloads[i]));
+		}
+		return lines;
+	}
+
+	/**
+	 * Converts the key presses, key releases and scrolls of a dump into trace events, timed from the first
+	 * record. Everything else the journal holds becomes a comment, as a guide for the {@code config} and
+	 * {@code expect} lines, which have to be added by hand.
+	 *
+	 * @param file a journal dump
+	 * @return the lines of a {@code .trace} file
+	 * @throws IOException if the file can not be read or is not a journal dump
+	 */
+	static List<String> toTrace(File file) throws IOException
+	{
+		final Dump dump = read(file);
+		final Map<Integer, String> keyNames = keyNames();
+		final List<String> lines = new ArrayList<>(dump.count + 3);
+		lines.add("# exported from " + file.getName() + ", " + dump.lost + " older records lost");
+		lines.add("# add the config the session ran with and the expected camera state by hand");
+		lines.add("# a scroll is taken as " + TRACE_ZOOM_PER_NOTCH + " zoom per wheel notch");
+		for (int i = 0; i < dump.count; i++)
+		{
+			final long millis = TimeUnit.NANOSECONDS.toMillis(dump.times[i] - dump.times[0]);
+			final long payload = dump.payloads[i];
+			final CameraKeysJournal.Event event = CameraKeysJournal.event(payload);
+			final int a = CameraKeysJournal.a(payload);
+			final int b = CameraKeysJournal.b(payload);
+			final String key = keyNames.get(b);
+			if ((event == CameraKeysJournal.Event.KEY_PRESSED || event == CameraKeysJournal.Event.KEY_RELEASED) && key != null && a == 0)
+			{
+				lines.add(millis + (event == CameraKeysJournal.Event.KEY_PRESSED ? " press " : " release ") + key);
+			}
+			else if (event == CameraKeysJournal.Event.SCROLLED)
+			{
+				// scrolling the wheel up, a negative rotation, zooms in
+				lines.add(millis + " scroll " + -b * TRACE_ZOOM_PER_NOTCH);
+			}
+			else
+			{
+				// traces have no key combinations, and only the listener knows the chatbox focus
+				lines.add("# " + millis + " " + describe(payload));
+			}
+		}
+		return lines;
+	}
+
+	private static Dump read(File file) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ))
+		{
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.remaining() < CameraKeysJournal.HEADER_BYTES || buffer.getInt() != CameraKeysJournal.MAGIC)
+			{
+				throw new IOException("not a camera keys journal: " + file);
+			}
+			final int version = buffer.getInt();
+			if (version != CameraKeysJournal.VERSION)
+			{
+				throw new IOException("unsupported journal version " + version);
+			}
+			final int count = buffer.getInt();
+			final int lost = buffer.getInt();
+			final long dumpNanos = buffer.getLong();
+			final long dumpMillis = buffer.getLong();
+			if (count < 0 || buffer.remaining() < (long) count * CameraKeysJournal.RECORD_BYTES)
+			{
+				throw new IOException("journal is truncated: " + file);
+			}
+
+			final Dump dump = new Dump(count, lost, dumpNanos, dumpMillis);
+			for (int i = 0; i < dump.count; i++)
+			{
+				dump.times[i] = buffer.getLong();
+				dump.payloads[i] = buffer.getLong();
+			}
+			return dump;
+		}
+	}
+
+	/**
+	 * @return the name of each key code as a trace writes it, the {@link KeyEvent} constant without {@code VK_}
+	 */
+	private static Map<Integer, String> keyNames()
+	{
+		final Map<Integer, String> names = new HashMap<>();
+		for (Field field : KeyEvent.class.getFields())
+		{
+			if (field.getName().startsWith("VK_") && field.getType() == int.class && Modifier.isStatic(field.getModifiers()))
+			{
+				try
+				{
+					names.putIfAbsent(field.getInt(null), field.getName().substring(3));
+				}
+				catch (IllegalAccessException e)
+				{
+					// public constants, so never thrown
+				}
+			}
+		}
+		return names;
+	}
+
+	/**
+	 * @param payload a record's packed event and arguments
+	 * @return the event and its arguments
+	 */
+	static String describe(long payload)
+	{
+		final CameraKeysJournal.Event event = CameraKeysJournal.event(payload);
+		final int a = CameraKeysJournal.a(payload);
+		final int b = CameraKeysJournal.b(payload);
+		switch (event)
+		{
+			case KEY_PRESSED:
+			case KEY_RELEASED:
+				return event + " " + KeyEvent.getKeyText(b) + " (" + b + ")"
+					+ (a != 0 ? " modifiers " + KeyEvent.getModifiersExText(a) : "");
+			case SCROLLED:
+				return event + " " + b;
+			case ZOOM_STATE:
+				return event + " " + name(ZOOM_STATES, a) + " -> " + name(ZOOM_STATES, b);
+			case CHAT_STATE:
+				return event + " " + name(CHAT_STATES, a) + " -> " + name(CHAT_STATES, b);
+			case TYPING:
+				return event + " " + (a == 1);
+			case SCRIPT:
+				return event + " " + a + " " + b;
+			default:
+				return event.toString();
+		}
+	}
+
+	private static final class Dump
+	{
+		final int count;
+		final long[] times;
+		final long[] payloads;
+		final int lost;
+		final long dumpNanos;
+		final long dumpMillis;
+
+		Dump(int count, int lost, long dumpNanos, long dumpMillis)
+		{
+			this.count = count;
+			this.lost = lost;
+			this.dumpNanos = dumpNanos;
+			this.dumpMillis = dumpMillis;
+			times = new long[count];
+			payloads = new long[count];
+		}
+	}
+
+	private static String name(Enum<?>[] values, int ordinal)
+	{
+		return ordinal < values.length ? values[ordinal].name() : String.valueOf(ordinal);
+	}
+}
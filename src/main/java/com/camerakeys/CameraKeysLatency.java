@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import javax.inject.Singleton;
+
+/**
+ * Press-to-apply latency of each key action, from the key event reaching the listener
+ * to the camera script running on the client thread.
+ * <p>
+ * Only used on the client thread.
+ */
+@Singleton
+class CameraKeysLatency
+{
+	private static final CameraKeysBindings.Action[] ACTIONS = CameraKeysBindings.Action.values();
+
+	private final CameraKeysLatencyHistogram[] histograms = new CameraKeysLatencyHistogram[ACTIONS.length];
+
+	CameraKeysLatency()
+	{
+		for (int i = 0; i < histograms.length; i++)
+		{
+			histograms[i] = new CameraKeysLatencyHistogram();
+		}
+	}
+
+	/**
+	 * @param action       the action that was applied
+	 * @param requestNanos the {@link System#nanoTime()} the key event was received at
+	 * @param appliedNanos the {@link System#nanoTime()} the action was applied at
+	 */
+	void record(CameraKeysBindings.Action action, long requestNanos, long appliedNanos)
+	{
+		histograms[action.ordinal()].record(appliedNanos - requestNanos);
+	}
+
+	CameraKeysLatencyHistogram get(CameraKeysBindings.Action action)
+	{
+		return histograms[action.ordinal()];
+	}
+
+	/**
+	 * @return the total number of samples over every action
+	 */
+	long getCount()
+	{
+		long count = 0;
+		for (CameraKeysLatencyHistogram histogram : histograms)
+		{
+			count += histogram.getCount();
+		}
+		return count;
+	}
+
+	void reset()
+	{
+		for (CameraKeysLatencyHistogram histogram : histograms)
+		{
+			histogram.reset();
+		}
+	}
+
+	/**
+	 * @return a one line summary of every action that has been recorded, or an empty string
+	 */
+	String summary()
+	{
+		StringBuilder sb = new StringBuilder();
+		for (CameraKeysBindings.Action action : ACTIONS)
+		{
+			CameraKeysLatencyHistogram histogram = get(action);
+			if (histogram.getCount() == 0)
+			{
+				continue;
+			}
+
+			if (sb.length() > 0)
+			{
+				sb.append(", ");
+			}
+			sb.append(action).append(" n=").append(histogram.getCount())
+				.append(" p50=").append(formatMillis(histogram.percentileNanos(0.5)))
+				.append(" p99=").append(formatMillis(histogram.percentileNanos(0.99)))
+				.append(" max=").append(formatMillis(histogram.getMaxNanos()));
+		}
+		return sb.toString();
+	}
+
+	static String formatMillis(long nanos)
+	{
+		return String.format("%.1fms", nanos / 1_000_000.0);
+	}
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+/**
+ * A fixed size latency histogram with power of two microsecond buckets.
+ * <p>
+ * Recording is a couple of arithmetic operations and never allocates. Percentiles are estimated from
+ * the bucket bounds, so they are accurate to within a factor of two; the maximum is exact.
+ */
+class CameraKeysLatencyHistogram
+{
+	/**
+	 * Bucket i holds latencies of [2^i, 2^(i+1)) microseconds, the last bucket holds everything above.
+	 */
+	private static final int BUCKETS = 24;
+
+	private final long[] buckets = new long[BUCKETS];
+	private long count;
+	private long maxNanos;
+
+	void record(long nanos)
+	{
+		final long micros = Math.max(nanos, 0) / 1000;
+		final int bucket = micros == 0 ? 0 : Math.min(63 - Long.numberOfLeadingZeros(micros), BUCKETS - 1);
+		buckets[bucket]++;
+		count++;
+		maxNanos = Math.max(maxNanos, nanos);
+	}
+
+	/**
+	 * @param quantile the quantile, from 0 to 1
+	 * @return the estimated latency at the quantile in nanoseconds, or 0 if nothing has been recorded
+	 */
+	long percentileNanos(double quantile)
+	{
+		if (count == 0)
+		{
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(quantile * count));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			seen += buckets[i];
+			if (seen >= rank)
+			{
+				// the upper bound of the bucket, but never more than the largest value recorded
+				return Math.min((2L << i) * 1000, maxNanos);
+			}
+		}
+		return maxNanos;
+	}
+
+	long getMaxNanos()
+	{
+		return maxNanos;
+	}
+
+	long getCount()
+	{
+		return count;
+	}
+
+	void reset()
+	{
+		for (int i = 0; i < BUCKETS; i++)
+		{
+			buckets[i] = 0;
+		}
+		count = 0;
+		maxNanos = 0;
+	}
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import com.google.inject.Inject;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.OverlayPriority;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+/**
+ * Debug overlay showing the p50, p99 and max key-to-camera latency of each action.
+ */
+public class CameraKeysLatencyOverlay extends OverlayPanel
+{
+	private static final CameraKeysBindings.Action[] ACTIONS = CameraKeysBindings.Action.values();
+
+	private final CameraKeysLatency latency;
+
+	@Inject
+	private CameraKeysLatencyOverlay(CameraKeysLatency latency, CameraKeysPlugin plugin)
+	{
+		super(plugin);
+		setPosition(OverlayPosition.TOP_LEFT);
+		setPriority(OverlayPriority.LOW);
+		this.latency = latency;
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		panelComponent.getChildren().add(TitleComponent.builder()
+			.text("Key latency p50 / p99 / max")
+			.build());
+
+		for (CameraKeysBindings.Action action : ACTIONS)
+		{
+			CameraKeysLatencyHistogram histogram = latency.get(action);
+			if (histogram.getCount() == 0)
+			{
+				continue;
+			}
+
+			panelComponent.getChildren().add(LineComponent.builder()
+				.left(action.toString())
+				.right(CameraKeysLatency.formatMillis(histogram.percentileNanos(0.5))
+					+ " / " + CameraKeysLatency.formatMillis(histogram.percentileNanos(0.99))
+					+ " / " + CameraKeysLatency.formatMillis(histogram.getMaxNanos()))
+				.build());
+		}
+
+		return super.render(graphics);
+	}
+}
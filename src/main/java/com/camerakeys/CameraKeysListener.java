@@ -28,25 +28,48 @@ package com.camerakeys;
 
 import com.google.common.base.Strings;
 import java.awt.event.KeyEvent;
-import java.util.HashSet;
-import java.util.Set;
+import java.awt.event.MouseWheelEvent;
+import java.util.Arrays;
 import javax.inject.Inject;
 import net.runelite.api.Client;
 import net.runelite.api.VarClientStr;
-import net.runelite.client.callback.ClientThread;
 import net.runelite.client.input.KeyListener;
+import net.runelite.client.input.MouseWheelListener;
 
-class CameraKeysListener implements KeyListener
+class CameraKeysListener implements KeyListener, MouseWheelListener
 {
-	private final Set<Integer> blockedChars = new HashSet<>();
+	/**
+	 * Key codes are at most 16 bits, so every key fits in a 64k bit set.
+	 */
+	private static final int KEY_CODES = 1 << 16;
+
+	/**
+	 * The keys held down since they were pressed outside of typing, one bit per key code.
+	 * Only used on the key thread.
+	 */
+	private final long[] blockedChars = new long[KEY_CODES >>> 6];
+
+	@Inject
+	private Client client;
 	@Inject
 	private CameraKeysPlugin plugin;
 	@Inject
-	private CameraKeysConfig config;
+	private CameraKeysBindings bindings;
 	@Inject
-	private Client client;
+	private CameraKeysCommandQueue commandQueue;
 	@Inject
-	private ClientThread clientThread;
+	private CameraKeysJournal journal;
+
+	/**
+	 * If the user is typing in the unlocked game chat, as seen from the key thread.
+	 * The client thread is told about changes through {@link CameraKeysCommandQueue.Command#SET_TYPING}.
+	 */
+	private volatile boolean typing;
+
+	/**
+	 * Set when the client loses focus, so the key thread forgets the held keys whose releases it will not see.
+	 */
+	private volatile boolean keysReleased;
 
 	@Override
 	public void keyTyped(KeyEvent e)
@@ -56,86 +79,137 @@ class CameraKeysListener implements KeyListener
 	@Override
 	public void keyPressed(KeyEvent e)
 	{
-		if (!plugin.chatboxFocused())
+		if (keysReleased)
+		{
+			keysReleased = false;
+			Arrays.fill(blockedChars, 0);
+		}
+
+		// auto-repeat of a held key, which only does anything for the keys that open and close the chat
+		final int keyCode = e.getKeyCode();
+		if (isBlocked(keyCode) && !isChatKey(keyCode))
+		{
+			return;
+		}
+
+		// never read client state here, the client thread may be changing it
+		final CameraKeysInputContext context = plugin.getInputContext();
+		if (!context.isChatboxFocused())
 		{
 			return;
 		}
 
-		if (!plugin.isTyping())
+		if (!typing)
 		{
-			if (!blockedChars.contains(e.getKeyCode()) && !plugin.isDialogOpen())
+			final int actions = bindings.pressedActions(e);
+			if (isJournaled(context, actions, keyCode))
 			{
-				if (config.zoomKey().matches(e))
+				journal.record(CameraKeysJournal.Event.KEY_PRESSED, e.getModifiersEx(), keyCode);
+			}
+			if (actions != 0 && !isBlocked(keyCode) && !context.isDialogOpen())
+			{
+				if ((actions & CameraKeysBindings.Action.ZOOM.mask) != 0)
+				{
+					commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_PRESSED, 0, e.getWhen());
+				}
+				if ((actions & CameraKeysBindings.Action.NORTH.mask) != 0)
+				{
+					setCompassDirection(CameraKeysPlugin.CardinalDirections.NORTH);
+				}
+				if ((actions & CameraKeysBindings.Action.EAST.mask) != 0)
+				{
+					setCompassDirection(CameraKeysPlugin.CardinalDirections.EAST);
+				}
+				if ((actions & CameraKeysBindings.Action.SOUTH.mask) != 0)
 				{
-					plugin.zoom(CameraKeysPlugin.keyState.PRESSED);
+					setCompassDirection(CameraKeysPlugin.CardinalDirections.SOUTH);
 				}
-				if (config.northKey().matches(e))
+				if ((actions & CameraKeysBindings.Action.WEST.mask) != 0)
 				{
-					plugin.setCompassDirection(CameraKeysPlugin.CardinalDirections.NORTH);
+					setCompassDirection(CameraKeysPlugin.CardinalDirections.WEST);
 				}
-				if (config.eastKey().matches(e))
+				if ((actions & CameraKeysBindings.Action.LEVEL.mask) != 0)
 				{
-					plugin.setCompassDirection(CameraKeysPlugin.CardinalDirections.EAST);
+					setPitch(CameraKeysPlugin.PitchPresets.LEVEL);
 				}
-				if (config.southKey().matches(e))
+				if ((actions & CameraKeysBindings.Action.OVERHEAD.mask) != 0)
 				{
-					plugin.setCompassDirection(CameraKeysPlugin.CardinalDirections.SOUTH);
+					setPitch(CameraKeysPlugin.PitchPresets.OVERHEAD);
 				}
-				if (config.westKey().matches(e))
+				if ((actions & CameraKeysBindings.Action.ROTATE_LEFT.mask) != 0)
 				{
-					plugin.setCompassDirection(CameraKeysPlugin.CardinalDirections.WEST);
+					commandQueue.offer(CameraKeysCommandQueue.Command.ROTATE_PRESSED, 1);
+				}
+				if ((actions & CameraKeysBindings.Action.ROTATE_RIGHT.mask) != 0)
+				{
+					commandQueue.offer(CameraKeysCommandQueue.Command.ROTATE_PRESSED, 0);
+				}
+				if ((actions & CameraKeysBindings.Action.TURN_LEFT.mask) != 0)
+				{
+					commandQueue.offer(CameraKeysCommandQueue.Command.TURN, 1);
+				}
+				if ((actions & CameraKeysBindings.Action.TURN_RIGHT.mask) != 0)
+				{
+					commandQueue.offer(CameraKeysCommandQueue.Command.TURN, 0);
+				}
+				if ((actions & CameraKeysBindings.Action.DUMP_JOURNAL.mask) != 0)
+				{
+					commandQueue.offer(CameraKeysCommandQueue.Command.DUMP_JOURNAL);
+				}
+				for (int macro = 0; macro < CameraKeysMacros.MACROS; macro++)
+				{
+					if ((actions & CameraKeysBindings.Action.MACROS[macro].mask) != 0)
+					{
+						commandQueue.offer(CameraKeysCommandQueue.Command.MACRO, macro);
+					}
 				}
 			}
-			switch (e.getKeyCode())
+			switch (keyCode)
 			{
 				case KeyEvent.VK_ENTER:
 				case KeyEvent.VK_SLASH:
 				case KeyEvent.VK_COLON:
 					// refocus chatbox
-					plugin.setTyping(true);
+					setTyping(true);
 					if (plugin.getChatInputHandlingState() == CameraKeysPlugin.ChatInputHandlingState.ENABLED)
 					{
-						clientThread.invoke(plugin::unlockChat);
+						commandQueue.offer(CameraKeysCommandQueue.Command.UNLOCK_CHAT);
 					}
 					break;
 			}
 
-			blockedChars.add(e.getKeyCode());
+			setBlocked(keyCode, true);
 		}
 		else
 		{
-			switch (e.getKeyCode())
+			switch (keyCode)
 			{
 				case KeyEvent.VK_ESCAPE:
-					plugin.setTyping(false);
-					if (plugin.getChatInputHandlingState() == CameraKeysPlugin.ChatInputHandlingState.ENABLED || plugin.getChatInputHandlingState() == CameraKeysPlugin.ChatInputHandlingState.ENABLE)
+					setTyping(false);
+					if (isChatLockable())
 					{
 						// When exiting typing mode, block the escape key
 						// so that it doesn't trigger the in-game hotkeys
 						e.consume();
-						clientThread.invoke(() ->
-						{
-							client.setVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT, "");
-							client.setVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT, "");
-							plugin.lockChat();
-						});
+						commandQueue.offer(CameraKeysCommandQueue.Command.CLEAR_AND_LOCK_CHAT);
 					}
 					break;
 				case KeyEvent.VK_ENTER:
-					plugin.setTyping(false);
-					if (plugin.getChatInputHandlingState() == CameraKeysPlugin.ChatInputHandlingState.ENABLED || plugin.getChatInputHandlingState() == CameraKeysPlugin.ChatInputHandlingState.ENABLE)
+					setTyping(false);
+					if (isChatLockable())
 					{
-						clientThread.invoke(plugin::lockChat);
+						commandQueue.offer(CameraKeysCommandQueue.Command.LOCK_CHAT);
 					}
 					break;
 				case KeyEvent.VK_BACK_SPACE:
-					// Only lock chat on backspace when the typed text is now empty
+					// Only lock chat on backspace when the typed text is now empty. Read when the key is pressed,
+					// as the published context is a frame old and the game may not have seen the last typed key yet
 					if (Strings.isNullOrEmpty(client.getVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT)))
 					{
-						plugin.setTyping(false);
-						if (plugin.getChatInputHandlingState() == CameraKeysPlugin.ChatInputHandlingState.ENABLED || plugin.getChatInputHandlingState() == CameraKeysPlugin.ChatInputHandlingState.ENABLE)
+						setTyping(false);
+						if (isChatLockable())
 						{
-							clientThread.invoke(plugin::lockChat);
+							commandQueue.offer(CameraKeysCommandQueue.Command.LOCK_CHAT);
 						}
 					}
 					break;
@@ -146,11 +220,127 @@ class CameraKeysListener implements KeyListener
 	@Override
 	public void keyReleased(KeyEvent e)
 	{
-		if (config.zoomKey().matches(e))
+		final int actions = bindings.releasedActions(e);
+		if (isJournaled(plugin.getInputContext(), actions, e.getKeyCode()))
+		{
+			journal.record(CameraKeysJournal.Event.KEY_RELEASED, e.getModifiersEx(), e.getKeyCode());
+		}
+		if ((actions & CameraKeysBindings.Action.ZOOM.mask) != 0)
+		{
+			commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_RELEASED, 0, e.getWhen());
+		}
+		if ((actions & CameraKeysBindings.Action.ROTATE_LEFT.mask) != 0)
+		{
+			commandQueue.offer(CameraKeysCommandQueue.Command.ROTATE_RELEASED, 1);
+		}
+		if ((actions & CameraKeysBindings.Action.ROTATE_RIGHT.mask) != 0)
+		{
+			commandQueue.offer(CameraKeysCommandQueue.Command.ROTATE_RELEASED, 0);
+		}
+
+		setBlocked(e.getKeyCode(), false);
+	}
+
+	@Override
+	public MouseWheelEvent mouseWheelMoved(MouseWheelEvent e)
+	{
+		journal.record(CameraKeysJournal.Event.SCROLLED, 0, e.getWheelRotation());
+		// the client thread decides if the scroll cancels the zoom
+		commandQueue.offer(CameraKeysCommandQueue.Command.SCROLLED, 0, e.getWhen());
+		return e;
+	}
+
+	/**
+	 * Resets the typing state, e.g. when the plugin starts. Must not be called while the listener is registered.
+	 *
+	 * @param typing if the user is typing
+	 */
+	void resetTyping(boolean typing)
+	{
+		this.typing = typing;
+	}
+
+	private void setTyping(boolean typing)
+	{
+		this.typing = typing;
+		commandQueue.offer(CameraKeysCommandQueue.Command.SET_TYPING, typing ? 1 : 0);
+	}
+
+	/**
+	 * Treats every held key as released, for when the client loses focus. Safe to call from any thread.
+	 */
+	void releaseAll()
+	{
+		keysReleased = true;
+	}
+
+	private boolean isBlocked(int keyCode)
+	{
+		return keyCode >= 0 && keyCode < KEY_CODES && (blockedChars[keyCode >>> 6] & (1L << keyCode)) != 0;
+	}
+
+	private void setBlocked(int keyCode, boolean blocked)
+	{
+		if (keyCode < 0 || keyCode >= KEY_CODES)
 		{
-			plugin.zoom(CameraKeysPlugin.keyState.RELEASED);
+			return;
 		}
 
-		blockedChars.remove(e.getKeyCode());
+		if (blocked)
+		{
+			blockedChars[keyCode >>> 6] |= 1L << keyCode;
+		}
+		else
+		{
+			blockedChars[keyCode >>> 6] &= ~(1L << keyCode);
+		}
+	}
+
+	/**
+	 * @return if the key opens or closes the chat, so its presses matter even while it is held
+	 */
+	private static boolean isChatKey(int keyCode)
+	{
+		switch (keyCode)
+		{
+			case KeyEvent.VK_ENTER:
+			case KeyEvent.VK_SLASH:
+			case KeyEvent.VK_COLON:
+			case KeyEvent.VK_ESCAPE:
+			case KeyEvent.VK_BACK_SPACE:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	/**
+	 * Only keys the plugin acts on are journaled, and never while text or a bank pin could be being typed,
+	 * as the journal is dumped to a file users are asked to share.
+	 *
+	 * @param context the published client state
+	 * @param actions the actions bound to the key
+	 * @param keyCode the key code
+	 * @return if the key event should be recorded in the journal
+	 */
+	private boolean isJournaled(CameraKeysInputContext context, int actions, int keyCode)
+	{
+		return !typing && context.isChatboxFocused() && !context.isDialogOpen() && (actions != 0 || isChatKey(keyCode));
+	}
+
+	private void setCompassDirection(CameraKeysPlugin.CardinalDirections direction)
+	{
+		commandQueue.offer(CameraKeysCommandQueue.Command.COMPASS, direction.ordinal());
+	}
+
+	private void setPitch(CameraKeysPlugin.PitchPresets pitch)
+	{
+		commandQueue.offer(CameraKeysCommandQueue.Command.PITCH, pitch.ordinal());
+	}
+
+	private boolean isChatLockable()
+	{
+		final CameraKeysPlugin.ChatInputHandlingState state = plugin.getChatInputHandlingState();
+		return state == CameraKeysPlugin.ChatInputHandlingState.ENABLED || state == CameraKeysPlugin.ChatInputHandlingState.ENABLE;
 	}
 }
@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.Arrays;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * The camera macros from {@link CameraKeysConfig}, compiled into flat arrays of operations.
+ * <p>
+ * A macro is a comma separated list of operations, run in order within one client tick:
+ * <ul>
+ * <li>{@code north}, {@code east}, {@code south} or {@code west} sets the compass</li>
+ * <li>{@code level}, {@code overhead} or {@code pitch <value>} sets the camera pitch, from {@link #MIN_PITCH} to {@link #MAX_PITCH}</li>
+ * <li>{@code zoom <value>} sets the zoom level, from {@link CameraKeysConfig#MIN_ZOOM} to {@link CameraKeysConfig#MAX_ZOOM}</li>
+ * </ul>
+ * e.g. {@code north, overhead, zoom 200}. The macros are compiled once when the config changes,
+ * so running one allocates nothing.
+ */
+@Slf4j
+@Singleton
+class CameraKeysMacros
+{
+	/**
+	 * The number of configurable macros.
+	 */
+	static final int MACROS = 3;
+
+	/**
+	 * The camera pitch range of the client, from level to overhead.
+	 */
+	static final int MIN_PITCH = CameraKeysPlugin.PitchPresets.LEVEL.getPitch();
+	static final int MAX_PITCH = CameraKeysPlugin.PitchPresets.OVERHEAD.getPitch();
+
+	private static final CameraKeysPlugin.CardinalDirections[] CARDINAL_DIRECTIONS = CameraKeysPlugin.CardinalDirections.values();
+	private static final CameraKeysPlugin.PitchPresets[] PITCH_PRESETS = CameraKeysPlugin.PitchPresets.values();
+
+	@Inject
+	private CameraKeysConfig config;
+
+	/**
+	 * The current program. Replaced as a whole on rebuild so the client thread never sees a half compiled one.
+	 */
+	private volatile Program program = new Program(new int[0], new int[0], new int[MACROS + 1]);
+
+	/**
+	 * Compiles the macros from the current config. Operations that can not be parsed are logged and skipped.
+	 */
+	void rebuild()
+	{
+		final String[] texts = {config.macro1(), config.macro2(), config.macro3()};
+
+		int[] operations = new int[8];
+		int[] arguments = new int[8];
+		final int[] starts = new int[MACROS + 1];
+		int count = 0;
+
+		for (int macro = 0; macro < MACROS; macro++)
+		{
+			starts[macro] = count;
+			if (texts[macro] == null)
+			{
+				continue;
+			}
+
+			for (String step : texts[macro].split("[,;\n]"))
+			{
+				step = step.trim();
+				if (step.isEmpty())
+				{
+					continue;
+				}
+
+				if (count == operations.length)
+				{
+					operations = Arrays.copyOf(operations, count * 2);
+					arguments = Arrays.copyOf(arguments, count * 2);
+				}
+
+				try
+				{
+					compile(step, operations, arguments, count);
+					count++;
+				}
+				catch (IllegalArgumentException e)
+				{
+					log.warn("Skipping macro {} operation \"{}\": {}", macro + 1, step, e.getMessage());
+				}
+			}
+		}
+		starts[MACROS] = count;
+
+		program = new Program(Arrays.copyOf(operations, count), Arrays.copyOf(arguments, count), starts);
+	}
+
+	Program getProgram()
+	{
+		return program;
+	}
+
+	private static void compile(String step, int[] operations, int[] arguments, int index)
+	{
+		final String[] parts = step.split("\\s+");
+		final String name = parts[0];
+
+		for (CameraKeysPlugin.CardinalDirections direction : CARDINAL_DIRECTIONS)
+		{
+			if (direction.name().equalsIgnoreCase(name))
+			{
+				expectArguments(parts, 0);
+				operations[index] = Operation.COMPASS.ordinal();
+				arguments[index] = direction.ordinal();
+				return;
+			}
+		}
+
+		for (CameraKeysPlugin.PitchPresets pitch : PITCH_PRESETS)
+		{
+			if (pitch.name().equalsIgnoreCase(name))
+			{
+				expectArguments(parts, 0);
+				operations[index] = Operation.PITCH.ordinal();
+				arguments[index] = pitch.getPitch();
+				return;
+			}
+		}
+
+		if (name.equalsIgnoreCase("pitch"))
+		{
+			expectArguments(parts, 1);
+			final int pitch = Integer.parseInt(parts[1]);
+			if (pitch < MIN_PITCH || pitch > MAX_PITCH)
+			{
+				throw new IllegalArgumentException("pitch must be from " + MIN_PITCH + " to " + MAX_PITCH);
+			}
+			operations[index] = Operation.PITCH.ordinal();
+			arguments[index] = pitch;
+		}
+		else if (name.equalsIgnoreCase("zoom"))
+		{
+			expectArguments(parts, 1);
+			final int zoom = Integer.parseInt(parts[1]);
+			if (zoom < CameraKeysConfig.MIN_ZOOM || zoom > CameraKeysConfig.MAX_ZOOM)
+			{
+				throw new IllegalArgumentException("zoom must be from " + CameraKeysConfig.MIN_ZOOM + " to " + CameraKeysConfig.MAX_ZOOM);
+			}
+			operations[index] = Operation.ZOOM.ordinal();
+			arguments[index] = zoom;
+		}
+		else
+		{
+			throw new IllegalArgumentException("unknown operation " + name);
+		}
+	}
+
+	private static void expectArguments(String[] parts, int count)
+	{
+		if (parts.length != count + 1)
+		{
+			throw new IllegalArgumentException(parts[0] + " takes " + count + " argument" + (count == 1 ? "" : "s"));
+		}
+	}
+
+	enum Operation
+	{
+		/**
+		 * Set the compass. The argument is the {@link CameraKeysPlugin.CardinalDirections} ordinal.
+		 */
+		COMPASS,
+		/**
+		 * Set the camera pitch. The argument is the pitch.
+		 */
+		PITCH,
+		/**
+		 * Set the zoom level. The argument is the zoom level.
+		 */
+		ZOOM
+	}
+
+	/**
+	 * Every macro's operations, one after another. Macro {@code m} runs the operations from
+	 * {@link #start(int) start(m)} up to {@link #end(int) end(m)}.
+	 */
+	static final class Program
+	{
+		private static final Operation[] OPERATIONS = Operation.values();
+
+		private final int[] operations;
+		private final int[] arguments;
+		private final int[] starts;
+
+		private Program(int[] operations, int[] arguments, int[] starts)
+		{
+			this.operations = operations;
+			this.arguments = arguments;
+			this.starts = starts;
+		}
+
+		int start(int macro)
+		{
+			return starts[macro];
+		}
+
+		int end(int macro)
+		{
+			return starts[macro + 1];
+		}
+
+		Operation operation(int index)
+		{
+			return OPERATIONS[operations[index]];
+		}
+
+		int argument(int index)
+		{
+			return arguments[index];
+		}
+	}
+}
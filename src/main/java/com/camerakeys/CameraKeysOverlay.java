@@ -26,9 +26,14 @@
 package com.camerakeys;
 
 import com.google.inject.Inject;
+import java.awt.Color;
 import java.awt.Dimension;
+import java.awt.FontMetrics;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import net.runelite.api.Client;
+import net.runelite.client.ui.FontManager;
 import net.runelite.client.ui.overlay.OverlayPanel;
 import net.runelite.client.ui.overlay.OverlayPosition;
 import net.runelite.client.ui.overlay.OverlayPriority;
@@ -37,33 +42,160 @@ import net.runelite.client.util.ImageUtil;
 
 public class CameraKeysOverlay extends OverlayPanel
 {
+	/**
+	 * Gap between the icon and the readout, and between the readout lines.
+	 */
+	private static final int GAP = 2;
+
+	private static final String[] HEADINGS = {"N", "NE", "E", "SE", "S", "SW", "W", "NW"};
+
+	private final Client client;
+	private final CameraKeysCamera camera;
+	private final CameraKeysPlugin plugin;
+	private final CameraKeysSettings settings;
+	private final CameraKeysProfiler profiler;
+
+	/**
+	 * Loaded with the overlay, so the first frame it is shown on does not read it from the jar.
+	 */
 	private final BufferedImage zoomIcon;
-	private final CameraKeysConfig config;
+
+	/**
+	 * The icon and readout drawn together, redrawn only when a value on it changes.
+	 */
+	private BufferedImage panelImage;
+
+	/**
+	 * The values {@link #panelImage} was drawn with, heading in degrees. {@link #drawnReadout} is false while it only
+	 * shows the icon.
+	 */
+	private boolean drawnReadout;
+	private int drawnZoom;
+	private int drawnTarget;
+	private int drawnHeading;
 
 	@Inject
-	private CameraKeysOverlay(CameraKeysConfig config, CameraKeysPlugin plugin)
+	private CameraKeysOverlay(Client client, CameraKeysCamera camera, CameraKeysSettings settings, CameraKeysPlugin plugin)
 	{
 		super(plugin);
 		setPosition(OverlayPosition.CANVAS_TOP_RIGHT);
-		this.config = config;
+		this.client = client;
+		this.camera = camera;
+		this.plugin = plugin;
+		this.settings = settings;
+		this.profiler = plugin.getProfiler();
 		setPriority(OverlayPriority.LOW);
+
+		// The panel only ever holds one image, so build it once instead of every frame
+		setClearChildren(false);
 		zoomIcon = ImageUtil.loadImageResource(CameraKeysPlugin.class, "zoomIcon.png");
+		panelComponent.getChildren().add(new ImageComponent(zoomIcon));
 	}
 
 	@Override
 	public Dimension render(Graphics2D graphics)
 	{
-		if (config.isZoomIndicatorEnabled())
+		final long start = System.nanoTime();
+		final CameraKeysSettings.Snapshot snapshot = settings.get();
+		Dimension dimension = null;
+		if (snapshot.zoomIndicatorEnabled)
 		{
-			panelComponent.getChildren().clear();
-			ImageComponent imageComponent = new ImageComponent(zoomIcon);
-			panelComponent.getChildren().add(imageComponent);
+			if (snapshot.zoomReadoutEnabled)
+			{
+				final int zoom = camera.getZoom();
+				final int target = plugin.getZoomTarget();
+				final int heading = getHeading(client.getCameraYaw());
+				if (!drawnReadout || zoom != drawnZoom || target != drawnTarget || heading != drawnHeading)
+				{
+					drawReadout(zoom, target, heading);
+				}
+			}
+			else if (drawnReadout)
+			{
+				showImage(zoomIcon);
+				drawnReadout = false;
+			}
+			dimension = super.render(graphics);
+		}
+		profiler.record(CameraKeysProfiler.Stage.OVERLAY_RENDER, start, System.nanoTime());
+		return dimension;
+	}
+
+	/**
+	 * Draws the icon and readout into {@link #panelImage}, reusing it when the size has not changed.
+	 */
+	private void drawReadout(int zoom, int target, int heading)
+	{
+		final String[] lines = {
+			"Zoom " + zoom,
+			"Target " + target,
+			"Heading " + heading + "\u00b0 " + HEADINGS[((heading * HEADINGS.length + 180) / 360) % HEADINGS.length]
+		};
 
-			return super.render(graphics);
+		final BufferedImage image = panelImage != null ? panelImage : zoomIcon;
+		Graphics2D g = image.createGraphics();
+		g.setFont(FontManager.getRunescapeSmallFont());
+		final FontMetrics metrics = g.getFontMetrics();
+		g.dispose();
+
+		int textWidth = 0;
+		for (String line : lines)
+		{
+			textWidth = Math.max(textWidth, metrics.stringWidth(line));
 		}
-		else
+		final int lineHeight = metrics.getHeight();
+		final int width = zoomIcon.getWidth() + GAP + textWidth;
+		final int height = Math.max(zoomIcon.getHeight(), lines.length * lineHeight + (lines.length - 1) * GAP);
+
+		if (panelImage == null || panelImage.getWidth() != width || panelImage.getHeight() != height)
 		{
-			return null;
+			panelImage = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+			showImage(panelImage);
 		}
+		else if (!drawnReadout)
+		{
+			showImage(panelImage);
+		}
+
+		g = panelImage.createGraphics();
+		g.setBackground(new Color(0, 0, 0, 0));
+		g.clearRect(0, 0, width, height);
+		g.drawImage(zoomIcon, 0, (height - zoomIcon.getHeight()) / 2, null);
+		g.setFont(FontManager.getRunescapeSmallFont());
+		g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+		final int x = zoomIcon.getWidth() + GAP;
+		int y = metrics.getAscent();
+		for (String line : lines)
+		{
+			g.setColor(Color.BLACK);
+			g.drawString(line, x + 1, y + 1);
+			g.setColor(Color.WHITE);
+			g.drawString(line, x, y);
+			y += lineHeight + GAP;
+		}
+		g.dispose();
+
+		drawnReadout = true;
+		drawnZoom = zoom;
+		drawnTarget = target;
+		drawnHeading = heading;
+	}
+
+	/**
+	 * Swaps the image the panel shows. Only happens when the readout is turned on or off or changes size.
+	 */
+	private void showImage(BufferedImage image)
+	{
+		panelComponent.getChildren().set(0, new ImageComponent(image));
+	}
+
+	/**
+	 * @param yaw the camera yaw, 0 facing north and increasing anticlockwise
+	 * @return the compass heading in whole degrees, clockwise from north
+	 */
+	static int getHeading(int yaw)
+	{
+		final int units = CameraKeysRotation.YAW_UNITS;
+		return (units - (yaw & (units - 1))) % units * 360 / units;
 	}
 }
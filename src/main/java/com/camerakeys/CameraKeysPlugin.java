@@ -27,29 +27,44 @@
 
 package com.camerakeys;
 
+import com.camerakeys.CameraKeysZoomStateMachine.ZoomEvent;
+import com.camerakeys.CameraKeysZoomStateMachine.ZoomState;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.Provides;
 import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
 import java.util.Objects;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import javax.inject.Inject;
 import lombok.AccessLevel;
 import lombok.Getter;
-import lombok.Setter;
 import lombok.extern.slf4j.Slf4j;
 import net.runelite.api.Client;
 import net.runelite.api.GameState;
-import net.runelite.api.ScriptID;
+import net.runelite.api.Player;
 import net.runelite.api.VarClientInt;
 import net.runelite.api.VarClientStr;
 import net.runelite.api.Varbits;
+import net.runelite.api.coords.WorldPoint;
 import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.FocusChanged;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.api.events.GameTick;
 import net.runelite.api.events.ScriptCallbackEvent;
+import net.runelite.api.events.VarClientIntChanged;
+import net.runelite.api.events.WidgetClosed;
+import net.runelite.api.events.WidgetLoaded;
 import net.runelite.api.widgets.Widget;
 import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.RuneLite;
 import net.runelite.client.callback.ClientThread;
 import net.runelite.client.config.ConfigManager;
 import net.runelite.client.eventbus.Subscribe;
 import net.runelite.client.events.ConfigChanged;
 import net.runelite.client.input.KeyManager;
+import net.runelite.client.input.MouseManager;
 import net.runelite.client.plugins.Plugin;
 import net.runelite.client.plugins.PluginDependency;
 import net.runelite.client.plugins.PluginDescriptor;
@@ -75,26 +90,53 @@ public class CameraKeysPlugin extends Plugin
 	 */
 	private static final String PRESS_ENTER_TO_CHAT = "Press Enter to Chat...";
 
+	/**
+	 * Separates the player name from the input in the chatbox, "rsn: input".
+	 */
+	private static final String CHAT_INPUT_SEPARATOR = ": ";
+
+	/**
+	 * The chatbox input with nothing typed, "*" in the typed text colour for each chatbox background.
+	 */
+	private static final String EMPTY_INPUT_OPAQUE = ColorUtil.wrapWithColorTag("*", JagexColors.CHAT_TYPED_TEXT_OPAQUE_BACKGROUND).intern();
+	private static final String EMPTY_INPUT_TRANSPARENT = ColorUtil.wrapWithColorTag("*", JagexColors.CHAT_TYPED_TEXT_TRANSPARENT_BACKGROUND).intern();
+
 	private static final String SCRIPT_EVENT_SET_CHATBOX_INPUT = "setChatboxInput";
 	private static final String SCRIPT_EVENT_BLOCK_CHAT_INPUT = "blockChatInput";
 
+	/**
+	 * Scrolling this soon after the zoom key is pressed does not cancel the zoom, e.g. the tail of a scroll
+	 * started before the key. Measured on the input event timestamps, so it is the same at any frame rate.
+	 */
+	private static final long ZOOM_CANCEL_LOCKOUT_MILLIS = 300;
+
 	/**
 	 * The allowed deviation from the set zoom level before the zoom is canceled.
 	 * About 3 "scroll wheel clicks"
 	 */
-	private static final int ZOOM_CANCEL_LOCKOUT_START_TICKS = 15;
 	private static final int ZOOM_CANCEL_THRESHOLD = 50;
 
 	private static final String KEYREMAPPINGPLUGIN_NAME = "keyremappingplugin";
 
 	/**
-	 * The script id for toplevelcompassop
-	 * <p>
-	 * The script that handles setting the compass direction.
-	 * <p>
-	 * from <a href="https://github.com/runelite/runelite/blob/2b5ea1f0b5c09011ce95a93b01baa2bcf3438895/runelite-client/src/main/scripts/ToplevelCompassOp.rs2asm"> TopLevelCompassOp.rs2asm</a>
+	 * Fired by {@link #setZoomState(ZoomState)} whenever the zoom state changes.
+	 */
+	private static final String EVENT_ZOOM_STATE_CHANGED = "zoomStateChanged";
+
+	private static final CardinalDirections[] CARDINAL_DIRECTIONS = CardinalDirections.values();
+	private static final PitchPresets[] PITCH_PRESETS = PitchPresets.values();
+
+	private static final int NO_MACRO_ZOOM = Integer.MIN_VALUE;
+
+	/**
+	 * Marks {@link #prevZoomLevel} and {@link #newZoomLevel} as unset.
+	 */
+	private static final int NO_ZOOM_LEVEL = Integer.MIN_VALUE;
+
+	/**
+	 * How many game ticks between key latency summaries in the log, about a minute.
 	 */
-	private static final int COMPASS_SCRIPT_ID = 1050;
+	private static final int LATENCY_LOG_INTERVAL_TICKS = 100;
 
 	@Inject
 	private Client client;
@@ -105,6 +147,9 @@ public class CameraKeysPlugin extends Plugin
 	@Inject
 	private KeyManager keyManager;
 
+	@Inject
+	private MouseManager mouseManager;
+
 	@Inject
 	private PluginManager pluginManager;
 
@@ -117,25 +162,65 @@ public class CameraKeysPlugin extends Plugin
 	@Inject
 	private CameraKeysConfig cameraKeysConfig;
 
+	@Inject
+	private CameraKeysBindings cameraKeysBindings;
+
 	@Inject
 	private CameraKeysOverlay cameraKeysOverlay;
 
 	@Inject
 	private KeyRemappingPlugin keyRemappingPlugin;
 
+	@Inject
+	private CameraKeysCommandQueue commandQueue;
+
+	@Inject
+	private CameraKeysCamera camera;
+
+	@Inject
+	private CameraKeysWidgets widgets;
+
+	@Inject
+	private CameraKeysMacros macros;
+
+	@Inject
+	private CameraKeysSettings settings;
+
+	@Inject
+	private CameraKeysLatency latency;
+
+	@Inject
+	private CameraKeysLatencyOverlay latencyOverlay;
+
+	@Inject
+	private CameraKeysProfilerOverlay profilerOverlay;
+
+	@Inject
+	private CameraKeysJournal journal;
+
+	@Inject
+	private ScheduledExecutorService executor;
+
 	/**
-	 * If the user is typing in the unlocked game chat
+	 * If the user is typing in the unlocked game chat.
+	 * <p>
+	 * Only used on the client thread, the key listener keeps its own copy and sends changes through the {@link #commandQueue}.
 	 */
 	@Getter(AccessLevel.PACKAGE)
-	@Setter(AccessLevel.PACKAGE)
 	private boolean typing;
 
+	/**
+	 * The client state the key listener sees, published at the end of every client tick.
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	private volatile CameraKeysInputContext inputContext = CameraKeysInputContext.UNFOCUSED;
+
 	/**
 	 * Enabled status of the features duplicated from the KeyRemappingPlugin.
 	 * Should be disabled while the KeyRemapping Plugin is enabled for compatibility reasons.
 	 */
 	@Getter(AccessLevel.PACKAGE)
-	private ChatInputHandlingState chatInputHandlingState = ChatInputHandlingState.DISABLED;
+	private volatile ChatInputHandlingState chatInputHandlingState = ChatInputHandlingState.DISABLED;
 
 	/**
 	 * The current state of the zoom level state machine.
@@ -143,49 +228,199 @@ public class CameraKeysPlugin extends Plugin
 	private ZoomState zoomState = ZoomState.OFF;
 
 	/**
-	 * The zoom level before the zoom key was activated
+	 * The zoom level before the zoom key was activated, or {@link #NO_ZOOM_LEVEL}.
 	 */
-	private Integer prevZoomLevel = null;
+	private int prevZoomLevel = NO_ZOOM_LEVEL;
 
 	/**
 	 * The zoom level that was achieved after the zoom was activated.
 	 * May not match the config value if it is lower or higher than is possible.
+	 * {@link #NO_ZOOM_LEVEL} until the zoom has been applied.
+	 */
+	private int newZoomLevel = NO_ZOOM_LEVEL;
+
+	/**
+	 * When the key event that turned the zoom ON happened, from {@link java.awt.event.InputEvent#getWhen()}.
+	 */
+	private long zoomOnMillis;
+
+	/**
+	 * The event time of the zoom key being handled this tick.
+	 */
+	private long zoomKeyMillis;
+
+	/**
+	 * If the user has scrolled since the zoom turned ON and the lockout ended. Zoom changes are only
+	 * checked for a cancel after a scroll, so the plugin's own zoom writes never cancel it.
+	 */
+	private boolean zoomScrolled;
+
+	/**
+	 * Set while the camera applies the plugin's own changes.
+	 */
+	private boolean flushingCamera;
+
+	/**
+	 * When the zoom key event being handled this tick was received, or {@link CameraKeysCamera#UNTIMED}.
+	 */
+	private long zoomKeyNanos = CameraKeysCamera.UNTIMED;
+
+	/**
+	 * When the key event behind the next zoom write was received, or {@link CameraKeysCamera#UNTIMED}.
+	 * Carried over to the first step of a zoom animation.
+	 */
+	private long zoomRequestNanos = CameraKeysCamera.UNTIMED;
+
+	/**
+	 * The zoom level a macro set, used by the next SET instead of the zoom key's level, or {@link #NO_MACRO_ZOOM}.
+	 */
+	private int macroZoom = NO_MACRO_ZOOM;
+
+	/**
+	 * The rotate or turn key that started the rotation, and when, for its latency. {@link CameraKeysCamera#UNTIMED}
+	 * once the first step has been written.
+	 */
+	private CameraKeysBindings.Action rotationAction = CameraKeysBindings.Action.ROTATE_LEFT;
+	private long rotationRequestNanos = CameraKeysCamera.UNTIMED;
+
+	/**
+	 * Set when the region profiles config changes, so they are parsed again on the next game tick.
+	 */
+	private volatile boolean regionProfilesChanged;
+
+	/**
+	 * Set when the game loads a scene, so the region the player is in is looked up on the next game tick rather than
+	 * on every tick. Only used on the client thread.
+	 */
+	private boolean sceneChanged;
+
+	/**
+	 * The region the player was in when the scene was last loaded, or -1.
+	 */
+	private int regionId = -1;
+
+	/**
+	 * The zoom level of the region profile the player is in, or {@link CameraKeysRegionProfiles#NO_ZOOM}.
+	 */
+	private int regionZoom = CameraKeysRegionProfiles.NO_ZOOM;
+
+	/**
+	 * Game ticks since the last key latency summary was logged.
+	 */
+	private int latencyLogTicks;
+
+	/**
+	 * Samples at the last key latency summary, to skip logging when nothing has changed.
+	 */
+	private long latencyLoggedSamples;
+
+	/**
+	 * {@link CameraKeysCommandQueue#getDropped()} when it was last logged.
+	 */
+	private long droppedCommandsLogged;
+
+	/**
+	 * Set by {@link #initialize()} and cleared by {@link #teardown()}, so the ticks in between startUp and the
+	 * initialization, or after shutDown, do nothing. Only used on the client thread.
+	 */
+	private boolean initialized;
+
+	/**
+	 * If {@link #cameraKeysOverlay} is currently added to the overlay manager.
+	 */
+	private boolean overlayAttached;
+
+	/**
+	 * Times the stages of the client tick. Created here rather than injected so the tasks below can use it.
+	 */
+	@Getter(AccessLevel.PACKAGE)
+	private final CameraKeysProfiler profiler = new CameraKeysProfiler();
+
+	private final CameraKeysScheduler scheduler = new CameraKeysScheduler();
+
+	private final CameraKeysZoomAnimator zoomAnimator = new CameraKeysZoomAnimator();
+
+	private final CameraKeysRotation rotation = new CameraKeysRotation();
+
+	private final CameraKeysRegionProfiles regionProfiles = new CameraKeysRegionProfiles();
+
+	/**
+	 * Subscribed while {@link #zoomState} is ZOOM, SET or RESET.
+	 */
+	private final CameraKeysScheduler.Task zoomUpdateTask = scheduler.register(CameraKeysScheduler.Cadence.CLIENT_TICK, profiler.profile(CameraKeysProfiler.Stage.ZOOM_UPDATE, this::checkForZoomUpdate));
+
+	/**
+	 * Subscribed while {@link #chatInputHandlingState} is ENABLE.
+	 */
+	private final CameraKeysScheduler.Task chatLockTask = scheduler.register(CameraKeysScheduler.Cadence.CLIENT_TICK, profiler.profile(CameraKeysProfiler.Stage.CHAT_LOCK, this::checkForChatLockUpdate));
+
+	/**
+	 * Subscribed while {@link #zoomAnimator} is running.
+	 */
+	private final CameraKeysScheduler.Task zoomAnimationTask = scheduler.register(CameraKeysScheduler.Cadence.CLIENT_TICK, profiler.profile(CameraKeysProfiler.Stage.ZOOM_ANIMATION, this::stepZoomAnimation));
+
+	/**
+	 * Subscribed while {@link #rotation} is running.
 	 */
-	private Integer newZoomLevel = null;
+	private final CameraKeysScheduler.Task rotationTask = scheduler.register(CameraKeysScheduler.Cadence.CLIENT_TICK, profiler.profile(CameraKeysProfiler.Stage.ROTATION, this::stepRotation));
+
+	private final CameraKeysScheduler.Task overlayUpdateTask = scheduler.register(EVENT_ZOOM_STATE_CHANGED, profiler.profile(CameraKeysProfiler.Stage.OVERLAY_UPDATE, this::checkForOverlayUpdate));
 
-	private Integer zoomCancelLockout = null;
+	/**
+	 * Subscribed while there are region profiles, or they have changed.
+	 */
+	private final CameraKeysScheduler.Task regionProfileTask = scheduler.register(CameraKeysScheduler.Cadence.GAME_TICK, this::checkForRegionChange);
 
+	/**
+	 * Subscribed while the key latency debug option is enabled.
+	 */
+	private final CameraKeysScheduler.Task latencyLogTask = scheduler.register(CameraKeysScheduler.Cadence.GAME_TICK, this::logLatencySummary);
 
 	@Override
 	protected void startUp() throws Exception
 	{
+		// only snapshot the config here, everything that touches the client waits for the client thread
+		settings.rebuild();
+		cameraKeysBindings.rebuild();
+		macros.rebuild();
+
+		journal.record(CameraKeysJournal.Event.STARTED, 0, 0);
+
 		//Handle chat locking if the keyremapping plugin isnt already
-		chatInputHandlingState = pluginManager.isPluginEnabled(keyRemappingPlugin) ? ChatInputHandlingState.DISABLED : ChatInputHandlingState.ENABLED;
+		setChatInputHandlingState(pluginManager.isPluginEnabled(keyRemappingPlugin) ? ChatInputHandlingState.DISABLED : ChatInputHandlingState.ENABLED);
+
+		clientThread.invoke(this::initialize);
+	}
+
+	/**
+	 * Brings the plugin up on the client thread, in one step before the plugin's first frame.
+	 * The key and mouse listeners are registered last, once the state they read has been set up.
+	 */
+	private void initialize()
+	{
+		widgets.clear();
 
 		if (chatInputHandlingState == ChatInputHandlingState.ENABLED)
 		{
-			clientThread.invoke(() ->
+			typing = false;
+			if (client.getGameState() == GameState.LOGGED_IN)
 			{
-				if (client.getGameState() == GameState.LOGGED_IN)
-				{
-					typing = false;
-					lockChat();
-					// Clear any typed text
-					client.setVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT, "");
-				}
-			});
+				lockChat();
+				// Clear any typed text
+				client.setVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT, "");
+			}
 		}
 		else
 		{
 			//keyremapping is enabled so sync up typing state by checking chat contents
-			Widget chatboxInput = client.getWidget(WidgetInfo.CHATBOX_INPUT);
+			Widget chatboxInput = widgets.get(WidgetInfo.CHATBOX_INPUT);
 			if (chatboxInput != null)
 			{
 				String chatboxInputText = chatboxInput.getText();
 				int index = chatboxInputText.indexOf(':');
 				if (index > -1)
 				{
-					typing = !chatboxInputText.substring(index).equals(": " + PRESS_ENTER_TO_CHAT);
+					typing = !isChatboxInput(chatboxInputText, index, PRESS_ENTER_TO_CHAT);
 				}
 				else
 				{
@@ -198,31 +433,94 @@ public class CameraKeysPlugin extends Plugin
 			}
 		}
 
+		journal.record(CameraKeysJournal.Event.TYPING, typing ? 1 : 0, 0);
+
+		commandQueue.clear();
+		camera.reset();
+		zoomAnimator.stop();
+		stopRotation();
+		cameraKeysListener.resetTyping(typing);
+		zoomState = ZoomState.OFF;
+		prevZoomLevel = NO_ZOOM_LEVEL;
+		newZoomLevel = NO_ZOOM_LEVEL;
+		macroZoom = NO_MACRO_ZOOM;
+		inputContext = CameraKeysInputContext.UNFOCUSED;
+		zoomKeyNanos = CameraKeysCamera.UNTIMED;
+		zoomRequestNanos = CameraKeysCamera.UNTIMED;
+		latency.reset();
+		latencyLogTicks = 0;
+		latencyLoggedSamples = 0;
+		regionId = -1;
+		regionZoom = CameraKeysRegionProfiles.NO_ZOOM;
+		regionProfilesChanged = true;
+		sceneChanged = true;
+		regionProfileTask.subscribe();
+		overlayUpdateTask.subscribe();
+		updateLatencyDebug();
+		profiler.reset();
+		profiler.setBudgetMicros(settings.get().stageBudget);
+		updateProfilerDebug();
+		initialized = true;
 		keyManager.registerKeyListener(cameraKeysListener);
+		mouseManager.registerMouseWheelListener(cameraKeysListener);
 	}
 
 	@Override
 	protected void shutDown() throws Exception
 	{
-		if (chatInputHandlingState == ChatInputHandlingState.ENABLED)
+		clientThread.invoke(this::teardown);
+	}
+
+	/**
+	 * Takes the plugin down on the client thread, in order: remove the listeners, put the zoom and chat back, then
+	 * remove the overlays, then drop the tasks and queued commands.
+	 * <p>
+	 * The listeners are removed here rather than in {@link #shutDown()} so that a stop before {@link #initialize()}
+	 * has run still removes them after it registers them.
+	 */
+	private void teardown()
+	{
+		keyManager.unregisterKeyListener(cameraKeysListener);
+		mouseManager.unregisterMouseWheelListener(cameraKeysListener);
+		initialized = false;
+
+		// the zoom is put back whoever is handling the chat
+		if (zoomState == ZoomState.ON && prevZoomLevel != NO_ZOOM_LEVEL)
 		{
-			clientThread.invoke(() ->
-			{
-				if (client.getGameState() == GameState.LOGGED_IN)
-				{
-					if (zoomState == ZoomState.ON)
-					{
-						log.debug("Zoom level change: " + prevZoomLevel + " <-- " + getZoom());
-						clientThread.invoke(() -> client.runScript(ScriptID.CAMERA_DO_ZOOM, prevZoomLevel, prevZoomLevel));
-					}
-					unlockChat();
-				}
-			});
+			log.debug("Zoom level change: {} <-- {}", prevZoomLevel, camera.getZoom());
+			camera.setZoom(prevZoomLevel);
+		}
+		else if (zoomAnimator.isRunning())
+		{
+			// finish the animation straight away
+			camera.setZoom(zoomAnimator.getTarget());
 		}
+		zoomAnimator.stop();
+		camera.flush();
 
-		overlayManager.remove(cameraKeysOverlay);
+		if (chatInputHandlingState == ChatInputHandlingState.ENABLED && client.getGameState() == GameState.LOGGED_IN)
+		{
+			unlockChat();
+		}
 
-		keyManager.unregisterKeyListener(cameraKeysListener);
+		overlayManager.remove(cameraKeysOverlay);
+		overlayManager.remove(latencyOverlay);
+		overlayManager.remove(profilerOverlay);
+		overlayAttached = false;
+
+		scheduler.clear();
+		stopRotation();
+		zoomAnimator.stop();
+		camera.reset();
+		commandQueue.clear();
+		log.debug("Coalesced {} camera commands", camera.getCoalescedCommands());
+		log.debug("Key latency: {}", latency.summary());
+
+		journal.record(CameraKeysJournal.Event.STOPPED, 0, 0);
+		if (settings.get().journalDumpOnShutdownEnabled)
+		{
+			executor.execute(this::dumpJournal);
+		}
 	}
 
 	@Subscribe
@@ -233,7 +531,7 @@ public class CameraKeysPlugin extends Plugin
 			switch (scriptCallbackEvent.getEventName())
 			{
 				case SCRIPT_EVENT_SET_CHATBOX_INPUT:
-					Widget chatboxInput = client.getWidget(WidgetInfo.CHATBOX_INPUT);
+					Widget chatboxInput = widgets.get(WidgetInfo.CHATBOX_INPUT);
 					if (chatboxInput != null && !typing)
 					{
 						setChatboxWidgetInput(chatboxInput, PRESS_ENTER_TO_CHAT);
@@ -254,37 +552,262 @@ public class CameraKeysPlugin extends Plugin
 	@Subscribe
 	public void onClientTick(ClientTick clientTick)
 	{
-		checkForZoomUpdate();
-		checkForZoomCancel();
-		checkForChatLockUpdate();
-		checkForOverlayUpdate();
+		if (!initialized)
+		{
+			return;
+		}
+
+		final long start = System.nanoTime();
+		runCommands();
+		final long commandsEnd = System.nanoTime();
+		profiler.record(CameraKeysProfiler.Stage.COMMANDS, start, commandsEnd);
+
+		scheduler.clientTick();
+
+		final long flushStart = System.nanoTime();
+		flushingCamera = true;
+		final boolean zoomed = camera.flush();
+		flushingCamera = false;
+		profiler.record(CameraKeysProfiler.Stage.CAMERA_FLUSH, flushStart, System.nanoTime());
+		if (zoomed && zoomState == ZoomState.ON)
+		{
+			newZoomLevel = camera.getZoom(); //get actual zoom after running script may be higher or lower than requested
+			if (!zoomAnimator.isRunning())
+			{
+				// once per zoom, not on every frame of an animation
+				log.debug("Zoom level change: {} --> {}", prevZoomLevel, newZoomLevel);
+			}
+		}
+		zoomKeyNanos = CameraKeysCamera.UNTIMED;
+
+		publishInputContext();
+		profiler.record(CameraKeysProfiler.Stage.CLIENT_TICK, start, System.nanoTime());
+	}
+
+	@Subscribe
+	public void onGameTick(GameTick gameTick)
+	{
+		if (!initialized)
+		{
+			return;
+		}
+
+		scheduler.gameTick();
+	}
+
+	@Subscribe
+	public void onWidgetLoaded(WidgetLoaded widgetLoaded)
+	{
+		widgets.clear();
+	}
+
+	@Subscribe
+	public void onWidgetClosed(WidgetClosed widgetClosed)
+	{
+		widgets.clear();
+	}
+
+	@Subscribe
+	public void onGameStateChanged(GameStateChanged gameStateChanged)
+	{
+		widgets.clear();
+		if (gameStateChanged.getGameState() == GameState.LOADING || gameStateChanged.getGameState() == GameState.LOGGED_IN)
+		{
+			sceneChanged = true;
+		}
+		else
+		{
+			// logged out, hopping or disconnected, where the release of a held rotate key may never come
+			stopRotation();
+		}
+	}
+
+	@Subscribe
+	public void onFocusChanged(FocusChanged focusChanged)
+	{
+		if (!focusChanged.isFocused())
+		{
+			// the releases of the keys held now go to whatever took the focus, so nothing would stop the rotation
+			cameraKeysListener.releaseAll();
+			clientThread.invoke(this::stopRotation);
+		}
 	}
 
 	@Subscribe
 	public void onConfigChanged(ConfigChanged configChanged)
 	{
+		if (CameraKeysConfig.GROUP.equals(configChanged.getGroup()))
+		{
+			settings.rebuild();
+			cameraKeysBindings.rebuild();
+			macros.rebuild();
+			if ("latencyDebug".equals(configChanged.getKey()))
+			{
+				updateLatencyDebug();
+			}
+			else if ("stageTimings".equals(configChanged.getKey()))
+			{
+				updateProfilerDebug();
+			}
+			else if ("stageBudget".equals(configChanged.getKey()))
+			{
+				profiler.setBudgetMicros(settings.get().stageBudget);
+			}
+			else if ("regionProfiles".equals(configChanged.getKey()))
+			{
+				regionProfilesChanged = true;
+				regionProfileTask.subscribe();
+			}
+		}
 		checkForKeyRemappingPluginChange(configChanged);
 	}
 
 	/**
-	 * Check if the chat box has exclusive input.
-	 * <p>
-	 * Note: The world map search will take the input from the chat.
-	 *
-	 * @return If the chatbox has the exclusive input.
+	 * Runs every command the key listener has queued since the last client tick, in order.
 	 */
-	boolean chatboxFocused()
+	private void runCommands()
 	{
-		Widget chatboxParent = client.getWidget(WidgetInfo.CHATBOX_PARENT);
-		if (chatboxParent == null || chatboxParent.getOnKeyListener() == null)
+		int command;
+		while ((command = commandQueue.poll()) != CameraKeysCommandQueue.EMPTY)
+		{
+			switch (CameraKeysCommandQueue.command(command))
+			{
+				case ZOOM_PRESSED:
+					zoomKeyNanos = commandQueue.getPolledNanos();
+					zoomKeyMillis = commandQueue.getPolledEventMillis();
+					zoom(keyState.PRESSED);
+					break;
+				case ZOOM_RELEASED:
+					zoomKeyNanos = commandQueue.getPolledNanos();
+					zoomKeyMillis = commandQueue.getPolledEventMillis();
+					zoom(keyState.RELEASED);
+					break;
+				case SCROLLED:
+					if (zoomState == ZoomState.ON && commandQueue.getPolledEventMillis() - zoomOnMillis >= ZOOM_CANCEL_LOCKOUT_MILLIS)
+					{
+						zoomScrolled = true;
+						// the game may already have applied the scroll
+						checkForZoomCancel();
+					}
+					break;
+				case COMPASS:
+					stopRotation();
+					camera.setCompassDirection(CARDINAL_DIRECTIONS[CameraKeysCommandQueue.argument(command)], commandQueue.getPolledNanos());
+					break;
+				case ROTATE_PRESSED:
+					pressRotation(CameraKeysCommandQueue.argument(command) == 1);
+					break;
+				case ROTATE_RELEASED:
+					rotation.release(CameraKeysCommandQueue.argument(command) == 1 ? CameraKeysRotation.LEFT : CameraKeysRotation.RIGHT);
+					break;
+				case TURN:
+					turn(CameraKeysCommandQueue.argument(command) == 1);
+					break;
+				case PITCH:
+					camera.setPitch(PITCH_PRESETS[CameraKeysCommandQueue.argument(command)], commandQueue.getPolledNanos());
+					break;
+				case MACRO:
+					runMacro(CameraKeysCommandQueue.argument(command), commandQueue.getPolledNanos());
+					break;
+				case SET_TYPING:
+					typing = CameraKeysCommandQueue.argument(command) == 1;
+					journal.record(CameraKeysJournal.Event.TYPING, typing ? 1 : 0, 0);
+					break;
+				case UNLOCK_CHAT:
+					if (chatInputHandlingState == ChatInputHandlingState.ENABLED)
+					{
+						unlockChat();
+					}
+					break;
+				case LOCK_CHAT:
+					if (chatInputHandlingState == ChatInputHandlingState.ENABLED || chatInputHandlingState == ChatInputHandlingState.ENABLE)
+					{
+						lockChat();
+					}
+					break;
+				case CLEAR_AND_LOCK_CHAT:
+					if (chatInputHandlingState == ChatInputHandlingState.ENABLED || chatInputHandlingState == ChatInputHandlingState.ENABLE)
+					{
+						client.setVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT, "");
+						lockChat();
+					}
+					break;
+				case DUMP_JOURNAL:
+					// keep the file io off the client thread
+					executor.execute(this::dumpJournal);
+					break;
+			}
+		}
+
+		// a dropped release can leave the zoom or a rotation stuck, so say why
+		final long dropped = commandQueue.getDropped();
+		if (dropped != droppedCommandsLogged)
 		{
-			return false;
+			log.warn("Dropped {} key commands as the command queue was full", dropped - droppedCommandsLogged);
+			droppedCommandsLogged = dropped;
 		}
+	}
 
+	/**
+	 * Publishes the client state the key listener needs as {@link #inputContext}. Must be called on the client thread.
+	 */
+	@VisibleForTesting
+	void publishInputContext()
+	{
+		final boolean worldMapSearchFocused = worldMapSearchFocused();
 		// the search box on the world map can be focused, and chat input goes there, even
 		// though the chatbox still has its key listener.
-		Widget worldMapSearch = client.getWidget(WidgetInfo.WORLD_MAP_SEARCH);
-		return worldMapSearch == null || client.getVarcIntValue(VarClientInt.WORLD_MAP_SEARCH_FOCUSED) != 1;
+		final boolean chatboxFocused = !worldMapSearchFocused && chatboxHasKeyListener();
+		// the listener only checks for dialogs when the chatbox is focused
+		final boolean dialogOpen = chatboxFocused && isDialogOpen();
+		inputContext = CameraKeysInputContext.of(chatboxFocused, dialogOpen, typing, worldMapSearchFocused);
+	}
+
+	/**
+	 * Runs every operation of a macro. The camera applies them all at the end of the frame.
+	 *
+	 * @param macro        the macro index
+	 * @param requestNanos the {@link System#nanoTime()} the key event was received at
+	 */
+	private void runMacro(int macro, long requestNanos)
+	{
+		final CameraKeysMacros.Program program = macros.getProgram();
+		final CameraKeysBindings.Action action = CameraKeysBindings.Action.MACROS[macro];
+		for (int i = program.start(macro); i < program.end(macro); i++)
+		{
+			final int argument = program.argument(i);
+			switch (program.operation(i))
+			{
+				case COMPASS:
+					stopRotation();
+					camera.setCompassDirection(CARDINAL_DIRECTIONS[argument], requestNanos);
+					break;
+				case PITCH:
+					camera.setPitch(argument, action, requestNanos);
+					break;
+				case ZOOM:
+					fireZoomEvent(ZoomEvent.MACRO_SET);
+					// ignored while the zoom key is zoomed, so its release still goes back to the level from before it
+					if (zoomState == ZoomState.SET)
+					{
+						zoomKeyNanos = requestNanos;
+						macroZoom = argument;
+					}
+					break;
+			}
+		}
+	}
+
+	private boolean chatboxHasKeyListener()
+	{
+		Widget chatboxParent = widgets.get(WidgetInfo.CHATBOX_PARENT);
+		return chatboxParent != null && chatboxParent.getOnKeyListener() != null;
+	}
+
+	private boolean worldMapSearchFocused()
+	{
+		Widget worldMapSearch = widgets.get(WidgetInfo.WORLD_MAP_SEARCH);
+		return worldMapSearch != null && client.getVarcIntValue(VarClientInt.WORLD_MAP_SEARCH_FOCUSED) == 1;
 	}
 
 	/**
@@ -296,7 +819,7 @@ public class CameraKeysPlugin extends Plugin
 	boolean isDialogOpen()
 	{
 		// Most chat dialogs with numerical input are added without the chatbox or its key listener being removed,
-		// so chatboxFocused() is true. The chatbox onkey script uses the following logic to ignore key presses,
+		// so the chatbox is still focused. The chatbox onkey script uses the following logic to ignore key presses,
 		// so we will use it too to not remap F-keys.
 		return isHidden(WidgetInfo.CHATBOX_MESSAGES) || isHidden(WidgetInfo.CHATBOX_TRANSPARENT_LINES)
 			// We want to block F-key remapping in the bank pin interface too, so it does not interfere with the
@@ -310,29 +833,22 @@ public class CameraKeysPlugin extends Plugin
 	 */
 	private boolean isHidden(WidgetInfo widgetInfo)
 	{
-		Widget w = client.getWidget(widgetInfo);
+		Widget w = widgets.get(widgetInfo);
 		return w == null || w.isSelfHidden();
 	}
 
-	/**
-	 * @return the camera zoom level from the client vars
-	 */
-	private int getZoom()
-	{
-		return client.getVarcIntValue(VarClientInt.CAMERA_ZOOM_FIXED_VIEWPORT);
-	}
-
 	/**
 	 * Lock the chat by clearing input and setting it to PRESS_ENTER_TO_CHAT
 	 */
-	void lockChat()
+	private void lockChat()
 	{
-		Widget chatboxInput = client.getWidget(WidgetInfo.CHATBOX_INPUT);
+		Widget chatboxInput = widgets.get(WidgetInfo.CHATBOX_INPUT);
 		if (chatboxInput != null)
 		{
 			if (chatInputHandlingState == ChatInputHandlingState.ENABLE)
 			{
-				chatInputHandlingState = ChatInputHandlingState.ENABLED;
+				setChatInputHandlingState(ChatInputHandlingState.ENABLED);
+				chatLockTask.unsubscribe();
 			}
 			setChatboxWidgetInput(chatboxInput, PRESS_ENTER_TO_CHAT);
 		}
@@ -341,156 +857,194 @@ public class CameraKeysPlugin extends Plugin
 	/**
 	 * Unlocks the chat by setting the chatbox input back to "rsn: *"
 	 */
-	void unlockChat()
+	private void unlockChat()
 	{
-		Widget chatboxInput = client.getWidget(WidgetInfo.CHATBOX_INPUT);
+		Widget chatboxInput = widgets.get(WidgetInfo.CHATBOX_INPUT);
+		if (chatboxInput != null)
 		{
-			final boolean isChatboxTransparent = client.isResized() && client.getVarcIntValue(Varbits.TRANSPARENT_CHATBOX) == 1;
-			final Color textColor = isChatboxTransparent ? JagexColors.CHAT_TYPED_TEXT_TRANSPARENT_BACKGROUND : JagexColors.CHAT_TYPED_TEXT_OPAQUE_BACKGROUND;
-			setChatboxWidgetInput(chatboxInput, ColorUtil.wrapWithColorTag(client.getVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT) + "*", textColor));
+			final String typedText = client.getVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT);
+			if (typedText == null || typedText.isEmpty())
+			{
+				setChatboxWidgetInput(chatboxInput, getEmptyChatboxInput());
+			}
+			else
+			{
+				final Color textColor = isChatboxTransparent() ? JagexColors.CHAT_TYPED_TEXT_TRANSPARENT_BACKGROUND : JagexColors.CHAT_TYPED_TEXT_OPAQUE_BACKGROUND;
+				setChatboxWidgetInput(chatboxInput, ColorUtil.wrapWithColorTag(typedText + "*", textColor));
+			}
 		}
 	}
 
+	private boolean isChatboxTransparent()
+	{
+		return client.isResized() && client.getVarcIntValue(Varbits.TRANSPARENT_CHATBOX) == 1;
+	}
+
+	/**
+	 * @return the chatbox input with nothing typed for the current chatbox background
+	 */
+	private String getEmptyChatboxInput()
+	{
+		return isChatboxTransparent() ? EMPTY_INPUT_TRANSPARENT : EMPTY_INPUT_OPAQUE;
+	}
+
+	/**
+	 * Checks if the text after "rsn" in the chatbox is ": " followed by input, without copying the text.
+	 *
+	 * @param text  the chatbox widget text
+	 * @param index the index of the ':' in the text
+	 * @param input the input to check for
+	 * @return true if the chatbox already shows the input
+	 */
+	private static boolean isChatboxInput(String text, int index, String input)
+	{
+		return text.length() == index + CHAT_INPUT_SEPARATOR.length() + input.length()
+			&& text.startsWith(CHAT_INPUT_SEPARATOR, index)
+			&& text.startsWith(input, index + CHAT_INPUT_SEPARATOR.length());
+	}
+
 	/**
 	 * Handles setting the string after "rsn:" in the chatbox.
+	 * <p>
+	 * The widget is only written when its text changes, as every write invalidates the widget layout.
 	 *
 	 * @param widget The chatbox widget.
 	 * @param input  The string to set as the input string.
 	 */
-	private void setChatboxWidgetInput(Widget widget, String input)
+	@VisibleForTesting
+	void setChatboxWidgetInput(Widget widget, String input)
 	{
 		String text = widget.getText();
 		int idx = text.indexOf(':');
-		if (idx != -1)
+		if (idx != -1 && !isChatboxInput(text, idx, input))
 		{
-			String newText = text.substring(0, idx) + ": " + input;
+			String newText = new StringBuilder(idx + CHAT_INPUT_SEPARATOR.length() + input.length())
+				.append(text, 0, idx)
+				.append(CHAT_INPUT_SEPARATOR)
+				.append(input)
+				.toString();
 			widget.setText(newText);
 		}
 	}
 
 	/**
-	 * Toggles zoom based on {@link com.camerakeys.CameraKeysConfig.ActivationType}.
+	 * Feeds a zoom key press or release to the zoom state machine.
 	 *
 	 * @param state the key state pressed/released
 	 */
-	void zoom(keyState state)
+	private void zoom(keyState state)
 	{
-		switch (cameraKeysConfig.getActivationType())
-		{
-
-			case HOLD:
-				zoomHold(state);
-				break;
-			case TOGGLE:
-				zoomToggle(state);
-				break;
-			case SET:
-				zoomSet(state);
-				break;
-		}
+		fireZoomEvent(state == keyState.PRESSED ? ZoomEvent.PRESSED : ZoomEvent.RELEASED);
 	}
 
 	/**
-	 * Handles the zoom logic for HOLD
+	 * Looks up the transition for the event under the current {@link com.camerakeys.CameraKeysConfig.ActivationType}
+	 * and moves to the next state if there is one.
 	 *
-	 * @param state the key state pressed/released
+	 * @param event the zoom event
 	 */
-	private void zoomHold(keyState state)
+	private void fireZoomEvent(ZoomEvent event)
 	{
-		switch (state)
+		final ZoomState next = CameraKeysZoomStateMachine.next(settings.get().activationType, zoomState, event);
+		if (next != null)
 		{
-			case PRESSED:
-				zoomState = ZoomState.ZOOM;
-				break;
-			case RELEASED:
-				if (zoomState == ZoomState.ON)
-				{
-					zoomState = ZoomState.RESET;
-				}
-				break;
+			setZoomState(next);
 		}
 	}
 
 	/**
-	 * Handles the zoom logic for TOGGLE
+	 * Moves the zoom state machine to a new state, subscribing the tasks that have work in that state.
 	 *
-	 * @param state the key state pressed/released
+	 * @param newState the new zoom state
 	 */
-	private void zoomToggle(keyState state)
+	private void setZoomState(ZoomState newState)
 	{
-		switch (state)
+		if (zoomState == newState)
 		{
+			return;
+		}
 
-			case PRESSED:
-				switch (zoomState)
-				{
-					case OFF:
-						zoomState = ZoomState.ZOOM;
-						break;
-					case ON:
-						zoomState = ZoomState.RESET;
-						break;
-					default:
-						break;
-				}
+		journal.record(CameraKeysJournal.Event.ZOOM_STATE, zoomState.ordinal(), newState.ordinal());
+		zoomState = newState;
+		switch (newState)
+		{
+			case ZOOM:
+			case SET:
+			case RESET:
+				zoomUpdateTask.subscribe();
 				break;
-			case RELEASED:
+			case ON:
+				zoomUpdateTask.unsubscribe();
+				break;
+			case OFF:
+				zoomUpdateTask.unsubscribe();
 				break;
 		}
+		scheduler.fire(EVENT_ZOOM_STATE_CHANGED);
+	}
+
+	@Subscribe
+	public void onVarClientIntChanged(VarClientIntChanged varClientIntChanged)
+	{
+		final int index = varClientIntChanged.getIndex();
+		if (zoomScrolled && !flushingCamera
+			&& (index == VarClientInt.CAMERA_ZOOM_FIXED_VIEWPORT || index == VarClientInt.CAMERA_ZOOM_RESIZABLE_VIEWPORT))
+		{
+			checkForZoomCancel();
+		}
 	}
 
 	/**
-	 * Handles the zoom logic for SET
-	 *
-	 * @param state the key state pressed/released
+	 * Check if the user scrolled the zoom level to deviate more than {@link #ZOOM_CANCEL_THRESHOLD} in either direction.
+	 * If so set {@link #zoomState} to off and stop any running zoom animation.
+	 * <p>
+	 * Runs when the user scrolls and when the zoom changes after a scroll, so the ON state has no per frame work.
 	 */
-	private void zoomSet(keyState state)
+	private void checkForZoomCancel()
 	{
-		switch (state)
+		if (zoomState == ZoomState.ON && zoomScrolled && newZoomLevel != NO_ZOOM_LEVEL
+			&& Math.abs(camera.getZoom() - newZoomLevel) > ZOOM_CANCEL_THRESHOLD)
 		{
-
-			case PRESSED:
-				zoomState = ZoomState.SET;
-				break;
-			case RELEASED:
-				break;
+			// leave the zoom where the user scrolled it, rather than animating over it
+			zoomAnimator.stop();
+			zoomAnimationTask.unsubscribe();
+			zoomRequestNanos = CameraKeysCamera.UNTIMED;
+			fireZoomEvent(ZoomEvent.CANCELLED); //user canceled zoom by scrolling
+			log.debug("zoom canceled by users set point. Target Zoom: {} User Zoom: {}", newZoomLevel, camera.getZoom());
 		}
 	}
 
 	/**
-	 * Sets the compass to the specified cardinal direction.
+	 * Changes {@link #chatInputHandlingState}, recording the change in the {@link #journal}.
 	 *
-	 * @param direction the direction for the compass to be set to
+	 * @param newState the new chat input handling state
 	 */
-	void setCompassDirection(CardinalDirections direction)
+	private void setChatInputHandlingState(ChatInputHandlingState newState)
 	{
-		clientThread.invoke(() -> client.runScript(COMPASS_SCRIPT_ID, direction.value));
+		journal.record(CameraKeysJournal.Event.CHAT_STATE, chatInputHandlingState.ordinal(), newState.ordinal());
+		chatInputHandlingState = newState;
 	}
 
 	/**
-	 * Check if the user set the zoom level to deviate more than {@link #ZOOM_CANCEL_THRESHOLD} in either direction.
-	 * If so set {@link #zoomState} to off.
+	 * Writes the {@link #journal} to a new file in the camerakeys folder of the RuneLite directory.
+	 * Does file io, so must not run on the client thread.
 	 */
-	private void checkForZoomCancel()
+	private void dumpJournal()
 	{
-		if (zoomState == ZoomState.ON)
+		final File directory = new File(RuneLite.RUNELITE_DIR, "camerakeys");
+		final File file = new File(directory, "journal-" + System.currentTimeMillis() + ".bin");
+		try
 		{
-			if (zoomCancelLockout != null)
+			if (!directory.isDirectory() && !directory.mkdirs())
 			{
-				if (zoomCancelLockout <= 0)
-				if (newZoomLevel != null && Math.abs(getZoom() - newZoomLevel) > ZOOM_CANCEL_THRESHOLD)
-				{
-					if (newZoomLevel != null && Math.abs(getZoom() - newZoomLevel) > ZOOM_CANCEL_THRESHOLD)
-					{
-						zoomState = ZoomState.OFF; //user canceled zoom by scrolling
-						log.debug("zoom canceled by users set point. Target Zoom: " + newZoomLevel + " User Zoom: " + getZoom());
-					}
-				}
-				else
-				{
-					zoomCancelLockout--;
-				}
+				throw new IOException("could not create " + directory);
 			}
+			final int records = journal.dump(file);
+			log.info("Wrote {} journal records to {}", records, file);
+		}
+		catch (IOException e)
+		{
+			log.warn("Could not write the event journal", e);
 		}
 	}
 
@@ -504,9 +1058,7 @@ public class CameraKeysPlugin extends Plugin
 		if (chatInputHandlingState == ChatInputHandlingState.ENABLE)
 		{
 			client.setVarcStrValue(VarClientStr.CHATBOX_TYPED_TEXT, "");
-			Widget chatboxInput = client.getWidget(WidgetInfo.CHATBOX_INPUT);
-			final boolean isChatboxTransparent = client.isResized() && client.getVarcIntValue(Varbits.TRANSPARENT_CHATBOX) == 1;
-			final Color textColor = isChatboxTransparent ? JagexColors.CHAT_TYPED_TEXT_TRANSPARENT_BACKGROUND : JagexColors.CHAT_TYPED_TEXT_OPAQUE_BACKGROUND;
+			Widget chatboxInput = widgets.get(WidgetInfo.CHATBOX_INPUT);
 
 			if (chatboxInput != null)
 			{
@@ -514,7 +1066,7 @@ public class CameraKeysPlugin extends Plugin
 				int index = chatboxInputText.indexOf(':');
 
 				//check for the default input string "rsn: *"
-				if (index > -1 && chatboxInputText.substring(index).equals(": " + ColorUtil.wrapWithColorTag("*", textColor)))
+				if (index > -1 && isChatboxInput(chatboxInputText, index, getEmptyChatboxInput()))
 				{
 					lockChat();
 				}
@@ -524,16 +1076,26 @@ public class CameraKeysPlugin extends Plugin
 
 	/**
 	 * Enables/Disables the overlay based on the {@link #zoomState}.
+	 * <p>
+	 * Runs when the zoom state changes and only touches the overlay manager when the overlay needs to be added or removed.
 	 */
 	private void checkForOverlayUpdate()
 	{
 		switch (zoomState)
 		{
 			case OFF:
-				overlayManager.remove(cameraKeysOverlay);
+				if (overlayAttached)
+				{
+					overlayManager.remove(cameraKeysOverlay);
+					overlayAttached = false;
+				}
 				break;
 			case ON:
-				overlayManager.add(cameraKeysOverlay);
+				if (!overlayAttached)
+				{
+					overlayManager.add(cameraKeysOverlay);
+					overlayAttached = true;
+				}
 				break;
 			default:
 				break;
@@ -551,32 +1113,252 @@ public class CameraKeysPlugin extends Plugin
 		switch (zoomState)
 		{
 			case ZOOM:
-				prevZoomLevel = getZoom();
-				clientThread.invoke(() -> client.runScript(ScriptID.CAMERA_DO_ZOOM, cameraKeysConfig.zoom(), cameraKeysConfig.zoom()));
-				newZoomLevel = getZoom(); //get actual zoom after running script may be higher or lower than requested
-				log.debug("Zoom level change: " + prevZoomLevel + " --> " + newZoomLevel);
-				zoomCancelLockout = ZOOM_CANCEL_LOCKOUT_START_TICKS;
-				zoomState = ZoomState.ON;
+				prevZoomLevel = getZoomDestination();
+				zoomTo(getZoomTarget());
+				newZoomLevel = NO_ZOOM_LEVEL; //set once the zoom has been applied at the end of the frame
+				zoomOnMillis = zoomKeyMillis;
+				zoomScrolled = false;
+				fireZoomEvent(ZoomEvent.APPLIED);
 				break;
 			case SET:
-				prevZoomLevel = getZoom();
-				clientThread.invoke(() -> client.runScript(ScriptID.CAMERA_DO_ZOOM, cameraKeysConfig.zoom(), cameraKeysConfig.zoom()));
-				log.debug("Zoom level change: " + prevZoomLevel + " --> " + getZoom());
-				zoomState = ZoomState.OFF;
+				prevZoomLevel = getZoomDestination();
+				final int zoomTarget = macroZoom != NO_MACRO_ZOOM ? macroZoom : getZoomTarget();
+				macroZoom = NO_MACRO_ZOOM;
+				zoomTo(zoomTarget);
+				log.debug("Zoom level change: " + prevZoomLevel + " --> " + zoomTarget);
+				fireZoomEvent(ZoomEvent.APPLIED);
 				break;
 			case RESET:
-				log.debug("Zoom level change: " + prevZoomLevel + " <-- " + getZoom());
-				clientThread.invoke(() -> client.runScript(ScriptID.CAMERA_DO_ZOOM, prevZoomLevel, prevZoomLevel));
-				zoomState = ZoomState.OFF;
-				zoomCancelLockout = null;
-				prevZoomLevel = null;
-				newZoomLevel = null;
+				log.debug("Zoom level change: " + prevZoomLevel + " <-- " + camera.getZoom());
+				zoomTo(prevZoomLevel);
+				fireZoomEvent(ZoomEvent.APPLIED);
+				zoomScrolled = false;
+				prevZoomLevel = NO_ZOOM_LEVEL;
+				newZoomLevel = NO_ZOOM_LEVEL;
 				break;
 			default:
 				break;
 		}
 	}
 
+	/**
+	 * @return the zoom level of the zoom key, from the profile of the region the player is in if there is one
+	 */
+	int getZoomTarget()
+	{
+		return regionZoom != CameraKeysRegionProfiles.NO_ZOOM ? regionZoom : settings.get().zoom;
+	}
+
+	/**
+	 * Looks up the region profile when a new scene is loaded, or the profiles change.
+	 * Entering a region with a compass direction sets the compass to it.
+	 * <p>
+	 * The player's region is only resolved after a scene load, so the game ticks in between only check a flag.
+	 */
+	private void checkForRegionChange()
+	{
+		if (regionProfilesChanged)
+		{
+			regionProfilesChanged = false;
+			regionProfiles.load(cameraKeysConfig.regionProfiles());
+			if (regionProfiles.size() == 0)
+			{
+				regionProfileTask.unsubscribe();
+				regionId = -1;
+				regionZoom = CameraKeysRegionProfiles.NO_ZOOM;
+				return;
+			}
+			regionZoom = regionId == -1 ? CameraKeysRegionProfiles.NO_ZOOM : regionProfiles.getZoom(regionId);
+		}
+
+		if (!sceneChanged)
+		{
+			return;
+		}
+
+		final Player player = client.getLocalPlayer();
+		if (player == null)
+		{
+			return;
+		}
+		sceneChanged = false;
+
+		final int region = WorldPoint.fromLocalInstance(client, player.getLocalLocation()).getRegionID();
+		if (region == regionId)
+		{
+			return;
+		}
+
+		regionId = region;
+		regionZoom = regionProfiles.getZoom(region);
+		final CardinalDirections direction = regionProfiles.getDirection(region);
+		if (direction != null)
+		{
+			camera.setCompassDirection(direction);
+		}
+		log.debug("Entered region {}, zoom profile {}", region, regionZoom);
+	}
+
+	/**
+	 * Moves the camera to a zoom level, animated if smooth zoom is enabled.
+	 * A running animation is continued from its current value so reversing mid animation is smooth.
+	 *
+	 * @param zoom the zoom level to move to
+	 */
+	private void zoomTo(int zoom)
+	{
+		zoomRequestNanos = zoomKeyNanos;
+		final CameraKeysSettings.Snapshot current = settings.get();
+		final int duration = current.zoomAnimationDuration;
+		if (current.zoomAnimationEnabled && duration > 0)
+		{
+			final int from = zoomAnimator.isRunning() ? zoomAnimator.getCurrent() : camera.getTargetZoom();
+			zoomAnimator.start(from, zoom, System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(duration), current.zoomAnimationEasing);
+			zoomAnimationTask.subscribe();
+		}
+		else
+		{
+			zoomAnimator.stop();
+			zoomAnimationTask.unsubscribe();
+			camera.setZoom(zoom, zoomRequestNanos);
+			zoomRequestNanos = CameraKeysCamera.UNTIMED;
+		}
+	}
+
+	/**
+	 * Shows the key latency overlay and periodic log summary while the debug option is enabled.
+	 */
+	private void updateLatencyDebug()
+	{
+		if (settings.get().latencyDebugEnabled)
+		{
+			overlayManager.add(latencyOverlay);
+			latencyLogTask.subscribe();
+		}
+		else
+		{
+			overlayManager.remove(latencyOverlay);
+			latencyLogTask.unsubscribe();
+		}
+	}
+
+	/**
+	 * Shows the stage timing overlay while the debug option is enabled.
+	 */
+	private void updateProfilerDebug()
+	{
+		if (settings.get().stageTimingsEnabled)
+		{
+			overlayManager.add(profilerOverlay);
+		}
+		else
+		{
+			overlayManager.remove(profilerOverlay);
+		}
+	}
+
+	/**
+	 * Logs a summary of the key latencies every {@link #LATENCY_LOG_INTERVAL_TICKS} game ticks, if there are new samples.
+	 */
+	private void logLatencySummary()
+	{
+		if (++latencyLogTicks < LATENCY_LOG_INTERVAL_TICKS)
+		{
+			return;
+		}
+		latencyLogTicks = 0;
+
+		final long samples = latency.getCount();
+		if (samples != latencyLoggedSamples)
+		{
+			latencyLoggedSamples = samples;
+			log.info("Key latency: {}", latency.summary());
+		}
+	}
+
+	/**
+	 * Writes the next step of the zoom animation.
+	 */
+	private void stepZoomAnimation()
+	{
+		camera.setZoom(zoomAnimator.step(System.nanoTime()), zoomRequestNanos);
+		zoomRequestNanos = CameraKeysCamera.UNTIMED;
+		if (!zoomAnimator.isRunning())
+		{
+			zoomAnimationTask.unsubscribe();
+		}
+	}
+
+	/**
+	 * Starts turning the camera while a rotate key is held.
+	 *
+	 * @param left if the rotate left key was pressed, otherwise rotate right
+	 */
+	private void pressRotation(boolean left)
+	{
+		rotation.press(left ? CameraKeysRotation.LEFT : CameraKeysRotation.RIGHT, client.getCameraYawTarget(), commandQueue.getPolledNanos());
+		startRotation(left ? CameraKeysBindings.Action.ROTATE_LEFT : CameraKeysBindings.Action.ROTATE_RIGHT);
+	}
+
+	/**
+	 * Turns the camera by the turn angle.
+	 *
+	 * @param left if the turn left key was pressed, otherwise turn right
+	 */
+	private void turn(boolean left)
+	{
+		final int turnYaw = settings.get().turnYaw;
+		rotation.turn(left ? turnYaw : -turnYaw, client.getCameraYawTarget(), commandQueue.getPolledNanos());
+		startRotation(left ? CameraKeysBindings.Action.TURN_LEFT : CameraKeysBindings.Action.TURN_RIGHT);
+	}
+
+	/**
+	 * Subscribes the rotation step, timing the first step against the key that started it.
+	 *
+	 * @param action the rotate or turn key action
+	 */
+	private void startRotation(CameraKeysBindings.Action action)
+	{
+		if (!rotationTask.isSubscribed())
+		{
+			rotationAction = action;
+			rotationRequestNanos = commandQueue.getPolledNanos();
+			rotationTask.subscribe();
+		}
+	}
+
+	/**
+	 * Stops the rotation where it is, e.g. when a compass key takes over the yaw.
+	 */
+	private void stopRotation()
+	{
+		rotation.stop();
+		rotationTask.unsubscribe();
+		rotationRequestNanos = CameraKeysCamera.UNTIMED;
+	}
+
+	/**
+	 * Writes the next step of the rotation, a single yaw write per frame.
+	 */
+	private void stepRotation()
+	{
+		final CameraKeysSettings.Snapshot current = settings.get();
+		camera.setYaw(rotation.step(System.nanoTime(), current.rotationSpeed, current.rotationAcceleration), rotationAction, rotationRequestNanos);
+		rotationRequestNanos = CameraKeysCamera.UNTIMED;
+		if (!rotation.isRunning())
+		{
+			rotationTask.unsubscribe();
+		}
+	}
+
+	/**
+	 * @return the zoom level the camera is heading to, including the end of a running animation
+	 */
+	private int getZoomDestination()
+	{
+		return zoomAnimator.isRunning() ? zoomAnimator.getTarget() : camera.getTargetZoom();
+	}
+
 	/**
 	 * Makes sure the functionality that is duplicated by this plugin doesn't
 	 * interfere with {@link KeyRemappingPlugin} by checking if the Key
@@ -593,12 +1375,14 @@ public class CameraKeysPlugin extends Plugin
 			{
 				log.debug("Key Remapping Plugin Disabled. Taking over the handling of the chat box");
 				//special case where the keyremapperplugin clears the chat on shutdown and the chat needs to be locked again
-				chatInputHandlingState = ChatInputHandlingState.ENABLE;
+				setChatInputHandlingState(ChatInputHandlingState.ENABLE);
+				chatLockTask.subscribe();
 			}
 			else
 			{
 				log.debug("Key Remapping Plugin Enabled. Stopping the handling of the chat box.");
-				chatInputHandlingState = ChatInputHandlingState.DISABLED;
+				setChatInputHandlingState(ChatInputHandlingState.DISABLED);
+				chatLockTask.unsubscribe();
 			}
 		}
 	}
@@ -627,30 +1411,74 @@ public class CameraKeysPlugin extends Plugin
 	 */
 	enum CardinalDirections
 	{
-		NORTH(1),
-		EAST(2),
-		SOUTH(3),
-		WEST(4);
+		NORTH(1, 0, CameraKeysBindings.Action.NORTH),
+		EAST(2, 1536, CameraKeysBindings.Action.EAST),
+		SOUTH(3, 1024, CameraKeysBindings.Action.SOUTH),
+		WEST(4, 512, CameraKeysBindings.Action.WEST);
 
 		private final int value;
+		private final int yaw;
+		private final CameraKeysBindings.Action action;
 
-		CardinalDirections(int value)
+		CardinalDirections(int value, int yaw, CameraKeysBindings.Action action)
 		{
 			this.value = value;
+			this.yaw = yaw;
+			this.action = action;
 		}
 
 		public int getValue()
 		{
 			return value;
 		}
+
+		/**
+		 * @return the camera yaw facing this direction, the same as the compass script sets
+		 */
+		int getYaw()
+		{
+			return yaw;
+		}
+
+		/**
+		 * @return the key action that sets the compass to this direction
+		 */
+		CameraKeysBindings.Action getAction()
+		{
+			return action;
+		}
 	}
 
-	private enum ZoomState
+	/**
+	 * Camera pitches that can be set with a key.
+	 * <p>
+	 * There is no script for the pitch, so these are always set directly.
+	 */
+	enum PitchPresets
 	{
-		ON,
-		ZOOM,
-		SET,
-		RESET,
-		OFF
+		LEVEL(128, CameraKeysBindings.Action.LEVEL),
+		OVERHEAD(383, CameraKeysBindings.Action.OVERHEAD);
+
+		private final int pitch;
+		private final CameraKeysBindings.Action action;
+
+		PitchPresets(int pitch, CameraKeysBindings.Action action)
+		{
+			this.pitch = pitch;
+			this.action = action;
+		}
+
+		int getPitch()
+		{
+			return pitch;
+		}
+
+		/**
+		 * @return the key action that sets the camera to this pitch
+		 */
+		CameraKeysBindings.Action getAction()
+		{
+			return action;
+		}
 	}
 }
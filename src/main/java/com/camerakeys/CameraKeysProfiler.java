@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Times the stages of the plugin's client tick and overlay rendering, keeping a rolling average and
+ * the worst case of each stage in preallocated arrays.
+ * <p>
+ * Timing a stage is two {@link System#nanoTime()} calls and never allocates, so it is always on.
+ * A stage that goes over the budget, which is off unless set in the config, logs a warning at most once a
+ * minute per stage.
+ * Only used on the client thread.
+ */
+@Slf4j
+class CameraKeysProfiler
+{
+	/**
+	 * The rolling average moves 1/2^AVERAGE_SHIFT of the way to each new sample.
+	 */
+	private static final int AVERAGE_SHIFT = 5;
+
+	private static final long WARNING_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+	private static final Stage[] STAGES = Stage.values();
+
+	private final long[] averageNanos = new long[STAGES.length];
+	private final long[] worstNanos = new long[STAGES.length];
+	private final long[] samples = new long[STAGES.length];
+	private final long[] lastWarningNanos = new long[STAGES.length];
+
+	/**
+	 * Set from the config, which may change on another thread.
+	 */
+	private volatile long budgetNanos = Long.MAX_VALUE;
+
+	/**
+	 * @param stage    the stage the runnable is
+	 * @param runnable the stage
+	 * @return a runnable that runs and times the stage, to be created once and reused
+	 */
+	Runnable profile(Stage stage, Runnable runnable)
+	{
+		return () ->
+		{
+			final long start = System.nanoTime();
+			runnable.run();
+			record(stage, start, System.nanoTime());
+		};
+	}
+
+	/**
+	 * @param stage      the stage that ran
+	 * @param startNanos the {@link System#nanoTime()} the stage started at
+	 * @param endNanos   the {@link System#nanoTime()} the stage ended at
+	 */
+	void record(Stage stage, long startNanos, long endNanos)
+	{
+		final int i = stage.ordinal();
+		final long nanos = endNanos - startNanos;
+
+		averageNanos[i] = samples[i] == 0 ? nanos : averageNanos[i] + ((nanos - averageNanos[i]) >> AVERAGE_SHIFT);
+		worstNanos[i] = Math.max(worstNanos[i], nanos);
+		samples[i]++;
+
+		if (nanos > budgetNanos && (lastWarningNanos[i] == 0 || endNanos - lastWarningNanos[i] >= WARNING_INTERVAL_NANOS))
+		{
+			lastWarningNanos[i] = endNanos;
+			log.warn("{} took {}us, over the {}us budget", stage, TimeUnit.NANOSECONDS.toMicros(nanos), TimeUnit.NANOSECONDS.toMicros(budgetNanos));
+		}
+	}
+
+	/**
+	 * @param budgetMicros the time a stage may take before a warning is logged, or 0 for no budget
+	 */
+	void setBudgetMicros(int budgetMicros)
+	{
+		budgetNanos = budgetMicros > 0 ? TimeUnit.MICROSECONDS.toNanos(budgetMicros) : Long.MAX_VALUE;
+	}
+
+	long getAverageNanos(Stage stage)
+	{
+		return averageNanos[stage.ordinal()];
+	}
+
+	long getWorstNanos(Stage stage)
+	{
+		return worstNanos[stage.ordinal()];
+	}
+
+	long getSamples(Stage stage)
+	{
+		return samples[stage.ordinal()];
+	}
+
+	void reset()
+	{
+		for (int i = 0; i < STAGES.length; i++)
+		{
+			averageNanos[i] = 0;
+			worstNanos[i] = 0;
+			samples[i] = 0;
+			lastWarningNanos[i] = 0;
+		}
+	}
+
+	enum Stage
+	{
+		/**
+		 * The whole of {@link CameraKeysPlugin#onClientTick}, including the stages below.
+		 */
+		CLIENT_TICK,
+		COMMANDS,
+		ZOOM_UPDATE,
+		CHAT_LOCK,
+		ZOOM_ANIMATION,
+		ROTATION,
+		OVERLAY_UPDATE,
+		CAMERA_FLUSH,
+		OVERLAY_RENDER
+	}
+}
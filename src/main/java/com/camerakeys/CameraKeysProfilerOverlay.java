@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import com.google.inject.Inject;
+import java.awt.Dimension;
+import java.awt.Graphics2D;
+import net.runelite.client.ui.overlay.OverlayPanel;
+import net.runelite.client.ui.overlay.OverlayPosition;
+import net.runelite.client.ui.overlay.OverlayPriority;
+import net.runelite.client.ui.overlay.components.LineComponent;
+import net.runelite.client.ui.overlay.components.TitleComponent;
+
+/**
+ * Debug overlay showing the average and worst time of each stage timed by the {@link CameraKeysProfiler},
+ * and how many camera requests a later one in the same frame replaced.
+ */
+public class CameraKeysProfilerOverlay extends OverlayPanel
+{
+	private static final CameraKeysProfiler.Stage[] STAGES = CameraKeysProfiler.Stage.values();
+
+	private final CameraKeysProfiler profiler;
+	private final CameraKeysCamera camera;
+
+	@Inject
+	private CameraKeysProfilerOverlay(CameraKeysPlugin plugin, CameraKeysCamera camera)
+	{
+		super(plugin);
+		setPosition(OverlayPosition.TOP_LEFT);
+		setPriority(OverlayPriority.LOW);
+		this.profiler = plugin.getProfiler();
+		this.camera = camera;
+	}
+
+	@Override
+	public Dimension render(Graphics2D graphics)
+	{
+		panelComponent.getChildren().add(TitleComponent.builder()
+			.text("Stage avg / worst")
+			.build());
+
+		for (CameraKeysProfiler.Stage stage : STAGES)
+		{
+			if (profiler.getSamples(stage) == 0)
+			{
+				continue;
+			}
+
+			panelComponent.getChildren().add(LineComponent.builder()
+				.left(stage.toString())
+				.right(formatMicros(profiler.getAverageNanos(stage)) + " / " + formatMicros(profiler.getWorstNanos(stage)))
+				.build());
+		}
+
+		panelComponent.getChildren().add(LineComponent.builder()
+			.left("Coalesced")
+			.right(Long.toString(camera.getCoalescedCommands()))
+			.build());
+
+		return super.render(graphics);
+	}
+
+	private static String formatMicros(long nanos)
+	{
+		return String.format("%.1fus", nanos / 1000.0);
+	}
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.Arrays;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Zoom levels and compass directions for map regions, parsed from {@link CameraKeysConfig#regionProfiles()}.
+ * <p>
+ * Each line is a region id, a zoom level and optionally a compass direction, e.g. {@code 12598 = 700 north}.
+ * The zoom level goes from {@link CameraKeysConfig#MIN_ZOOM} to {@link CameraKeysConfig#MAX_ZOOM}, the same as the zoom key.
+ * {@code #} starts a comment. The profiles are kept in an open addressing map from region id to profile,
+ * so looking one up allocates nothing. Only used on the client thread.
+ */
+@Slf4j
+class CameraKeysRegionProfiles
+{
+	/**
+	 * Returned by {@link #getZoom(int)} for a region without a profile.
+	 */
+	static final int NO_ZOOM = Integer.MIN_VALUE;
+
+	private static final int EMPTY = -1;
+
+	private static final CameraKeysPlugin.CardinalDirections[] CARDINAL_DIRECTIONS = CameraKeysPlugin.CardinalDirections.values();
+
+	private int[] regions = new int[0];
+	private int[] zooms = new int[0];
+	private CameraKeysPlugin.CardinalDirections[] directions = new CameraKeysPlugin.CardinalDirections[0];
+	private int mask = -1;
+	private int size;
+
+	/**
+	 * Replaces the profiles with the ones in the text. Lines that can not be parsed are logged and skipped.
+	 *
+	 * @param text the profiles, one per line
+	 */
+	void load(String text)
+	{
+		final String[] lines = text == null ? new String[0] : text.split("\n");
+
+		int capacity = 4;
+		while (capacity < lines.length * 2)
+		{
+			capacity <<= 1;
+		}
+		regions = new int[capacity];
+		Arrays.fill(regions, EMPTY);
+		zooms = new int[capacity];
+		directions = new CameraKeysPlugin.CardinalDirections[capacity];
+		mask = capacity - 1;
+		size = 0;
+
+		for (String line : lines)
+		{
+			final int comment = line.indexOf('#');
+			if (comment != -1)
+			{
+				line = line.substring(0, comment);
+			}
+			line = line.trim();
+			if (line.isEmpty())
+			{
+				continue;
+			}
+
+			final String[] parts = line.split("[\\s=:,]+");
+			try
+			{
+				if (parts.length < 2 || parts.length > 3)
+				{
+					throw new IllegalArgumentException("expected a region, a zoom level and an optional direction");
+				}
+
+				final int region = Integer.parseInt(parts[0]);
+				if (region < 0)
+				{
+					throw new IllegalArgumentException("negative region id");
+				}
+				final int zoom = Integer.parseInt(parts[1]);
+				if (zoom < CameraKeysConfig.MIN_ZOOM || zoom > CameraKeysConfig.MAX_ZOOM)
+				{
+					throw new IllegalArgumentException("zoom must be from " + CameraKeysConfig.MIN_ZOOM + " to " + CameraKeysConfig.MAX_ZOOM);
+				}
+				put(region, zoom, parts.length == 3 ? direction(parts[2]) : null);
+			}
+			catch (IllegalArgumentException e)
+			{
+				log.warn("Skipping region profile \"{}\": {}", line, e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * @return the number of regions with a profile
+	 */
+	int size()
+	{
+		return size;
+	}
+
+	/**
+	 * @param region the region id
+	 * @return the zoom level for the region, or {@link #NO_ZOOM}
+	 */
+	int getZoom(int region)
+	{
+		final int slot = find(region);
+		return slot == EMPTY ? NO_ZOOM : zooms[slot];
+	}
+
+	/**
+	 * @param region the region id
+	 * @return the compass direction for the region, or null
+	 */
+	CameraKeysPlugin.CardinalDirections getDirection(int region)
+	{
+		final int slot = find(region);
+		return slot == EMPTY ? null : directions[slot];
+	}
+
+	private int find(int region)
+	{
+		if (size == 0)
+		{
+			return EMPTY;
+		}
+
+		for (int slot = mix(region) & mask; ; slot = (slot + 1) & mask)
+		{
+			if (regions[slot] == region)
+			{
+				return slot;
+			}
+			if (regions[slot] == EMPTY)
+			{
+				return EMPTY;
+			}
+		}
+	}
+
+	private void put(int region, int zoom, CameraKeysPlugin.CardinalDirections direction)
+	{
+		int slot = mix(region) & mask;
+		while (regions[slot] != EMPTY && regions[slot] != region)
+		{
+			slot = (slot + 1) & mask;
+		}
+
+		if (regions[slot] == EMPTY)
+		{
+			regions[slot] = region;
+			size++;
+		}
+		zooms[slot] = zoom;
+		directions[slot] = direction;
+	}
+
+	/**
+	 * Region ids are the region x and y packed into 8 bits each, so spread them over the table.
+	 */
+	private static int mix(int region)
+	{
+		return region * 0x9E3779B9 >>> 16;
+	}
+
+	private static CameraKeysPlugin.CardinalDirections direction(String name)
+	{
+		for (CameraKeysPlugin.CardinalDirections direction : CARDINAL_DIRECTIONS)
+		{
+			if (direction.name().equalsIgnoreCase(name))
+			{
+				return direction;
+			}
+		}
+		throw new IllegalArgumentException("unknown direction " + name);
+	}
+}
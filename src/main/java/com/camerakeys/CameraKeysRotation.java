@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Integrates the camera yaw for the rotation keys from elapsed time.
+ * <p>
+ * A held rotate key turns the camera until it is released, and a turn key turns it by a fixed angle. Both speed up
+ * from standstill at a fixed acceleration to a top speed. The position is kept as a fraction of a yaw unit and every
+ * step moves it by the time since the last step, so the camera turns as fast at 20 fps as it does at 144 fps.
+ */
+class CameraKeysRotation
+{
+	/**
+	 * Camera yaw units in a full turn.
+	 */
+	static final int YAW_UNITS = 2048;
+
+	/**
+	 * Yaw increases anticlockwise, turning the camera to the left.
+	 */
+	static final int LEFT = 1;
+	static final int RIGHT = -1;
+
+	/**
+	 * The longest step integrated at once, so a stalled frame does not throw the camera round.
+	 */
+	private static final long MAX_STEP_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	private boolean leftHeld;
+	private boolean rightHeld;
+
+	/**
+	 * The camera yaw, with the fraction of a yaw unit the last step did not write.
+	 */
+	private double yaw;
+
+	/**
+	 * The speed in yaw units a second, always positive.
+	 */
+	private double speed;
+
+	/**
+	 * The yaw units left to turn for the turn keys, signed by direction.
+	 */
+	private double turnRemaining;
+
+	private long lastNanos;
+	private boolean running;
+
+	/**
+	 * Starts turning while a rotate key is held.
+	 *
+	 * @param direction  {@link #LEFT} or {@link #RIGHT}
+	 * @param currentYaw the camera yaw to start from if the camera is not already turning
+	 * @param nowNanos   the {@link System#nanoTime()} the key was pressed at
+	 */
+	void press(int direction, int currentYaw, long nowNanos)
+	{
+		start(currentYaw, nowNanos);
+		if (direction == LEFT)
+		{
+			leftHeld = true;
+		}
+		else
+		{
+			rightHeld = true;
+		}
+		// holding a key takes over from a turn
+		turnRemaining = 0;
+	}
+
+	/**
+	 * Stops turning for a rotate key. The rotation stops on the next step once neither rotate key is held.
+	 *
+	 * @param direction {@link #LEFT} or {@link #RIGHT}
+	 */
+	void release(int direction)
+	{
+		if (direction == LEFT)
+		{
+			leftHeld = false;
+		}
+		else
+		{
+			rightHeld = false;
+		}
+	}
+
+	/**
+	 * Turns the camera by a fixed angle, on top of any turn still in progress.
+	 *
+	 * @param yawUnits   the angle in yaw units, signed by direction
+	 * @param currentYaw the camera yaw to start from if the camera is not already turning
+	 * @param nowNanos   the {@link System#nanoTime()} the key was pressed at
+	 */
+	void turn(int yawUnits, int currentYaw, long nowNanos)
+	{
+		start(currentYaw, nowNanos);
+		if (turnRemaining != 0 && Math.signum(turnRemaining) != Math.signum(yawUnits))
+		{
+			// reversing, so speed up again from standstill
+			speed = 0;
+		}
+		turnRemaining += yawUnits;
+	}
+
+	private void start(int currentYaw, long nowNanos)
+	{
+		if (!running)
+		{
+			yaw = currentYaw;
+			speed = 0;
+			turnRemaining = 0;
+			lastNanos = nowNanos;
+			running = true;
+		}
+	}
+
+	/**
+	 * Advances the rotation by the time since the last step. The rotation stops once no rotate key is held and
+	 * the turns are complete.
+	 *
+	 * @param nowNanos     the current {@link System#nanoTime()}
+	 * @param topSpeed     the top speed in yaw units a second
+	 * @param acceleration the acceleration in yaw units a second squared, or 0 to start at the top speed
+	 * @return the camera yaw for this frame
+	 */
+	int step(long nowNanos, double topSpeed, double acceleration)
+	{
+		final double seconds = Math.min(Math.max(nowNanos - lastNanos, 0), MAX_STEP_NANOS) / NANOS_PER_SECOND;
+		lastNanos = nowNanos;
+
+		final int direction;
+		if (leftHeld != rightHeld)
+		{
+			direction = leftHeld ? LEFT : RIGHT;
+		}
+		else if (leftHeld || turnRemaining == 0)
+		{
+			// both held cancel out
+			direction = 0;
+		}
+		else
+		{
+			direction = turnRemaining > 0 ? LEFT : RIGHT;
+		}
+
+		if (direction == 0)
+		{
+			speed = 0;
+		}
+		else
+		{
+			double distance;
+			if (acceleration > 0 && speed < topSpeed)
+			{
+				// speed up until the top speed is reached, then carry on at it, so the distance does not
+				// depend on how the time is split into frames
+				final double rampSeconds = Math.min(seconds, (topSpeed - speed) / acceleration);
+				final double rampSpeed = speed + acceleration * rampSeconds;
+				distance = (speed + rampSpeed) / 2 * rampSeconds + topSpeed * (seconds - rampSeconds);
+				speed = rampSpeed;
+			}
+			else
+			{
+				speed = topSpeed;
+				distance = topSpeed * seconds;
+			}
+
+			if (!leftHeld && !rightHeld)
+			{
+				distance = Math.min(distance, Math.abs(turnRemaining));
+				turnRemaining -= direction * distance;
+			}
+			yaw += direction * distance;
+			if (yaw < 0 || yaw >= YAW_UNITS)
+			{
+				yaw -= Math.floor(yaw / YAW_UNITS) * YAW_UNITS;
+			}
+		}
+
+		if (!leftHeld && !rightHeld && turnRemaining == 0)
+		{
+			running = false;
+			speed = 0;
+		}
+
+		return (int) Math.round(yaw) & (YAW_UNITS - 1);
+	}
+
+	/**
+	 * Stops the rotation where it is and forgets the held keys.
+	 */
+	void stop()
+	{
+		leftHeld = false;
+		rightHeld = false;
+		turnRemaining = 0;
+		speed = 0;
+		running = false;
+	}
+
+	boolean isRunning()
+	{
+		return running;
+	}
+}
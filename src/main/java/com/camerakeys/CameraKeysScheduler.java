@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the plugin's checks only while they have work to do.
+ * <p>
+ * Each task runs at a {@link Cadence} and only while it is subscribed, so an idle plugin
+ * costs a couple of reads per frame instead of polling the client every frame.
+ */
+class CameraKeysScheduler
+{
+	/**
+	 * One bit per task in the subscription masks.
+	 */
+	private static final int MAX_TASKS = Integer.SIZE;
+
+	private final Task[] tasks = new Task[MAX_TASKS];
+	private int taskCount;
+
+	private final AtomicInteger clientTickTasks = new AtomicInteger();
+	private final AtomicInteger gameTickTasks = new AtomicInteger();
+	private final AtomicInteger eventTasks = new AtomicInteger();
+
+	/**
+	 * Event tasks whose event has fired since they last ran.
+	 */
+	private final AtomicInteger pendingEventTasks = new AtomicInteger();
+
+	/**
+	 * Registers a task that runs every client tick or game tick while subscribed.
+	 *
+	 * @param cadence {@link Cadence#CLIENT_TICK} or {@link Cadence#GAME_TICK}
+	 * @param runnable the work to run
+	 * @return the unsubscribed task
+	 */
+	Task register(Cadence cadence, Runnable runnable)
+	{
+		if (cadence == Cadence.EVENT)
+		{
+			throw new IllegalArgumentException("event tasks need an event name");
+		}
+		return register(cadence, null, runnable);
+	}
+
+	/**
+	 * Registers a task that runs on the next client tick after the named event fires, while subscribed.
+	 *
+	 * @param event the event name passed to {@link #fire(String)}
+	 * @param runnable the work to run
+	 * @return the unsubscribed task
+	 */
+	Task register(String event, Runnable runnable)
+	{
+		return register(Cadence.EVENT, event, runnable);
+	}
+
+	private Task register(Cadence cadence, String event, Runnable runnable)
+	{
+		if (taskCount == MAX_TASKS)
+		{
+			throw new IllegalStateException("too many tasks");
+		}
+		Task task = new Task(taskCount, cadence, event, runnable);
+		tasks[taskCount++] = task;
+		return task;
+	}
+
+	/**
+	 * Marks every subscribed task of the named event to run on the next client tick.
+	 * Safe to call from any thread.
+	 *
+	 * @param event the event name
+	 */
+	void fire(String event)
+	{
+		int subscribed = eventTasks.get();
+		int fired = 0;
+		while (subscribed != 0)
+		{
+			int id = Integer.numberOfTrailingZeros(subscribed);
+			subscribed &= subscribed - 1;
+			if (tasks[id].event.equals(event))
+			{
+				fired |= 1 << id;
+			}
+		}
+
+		if (fired != 0)
+		{
+			set(pendingEventTasks, fired);
+		}
+	}
+
+	/**
+	 * Runs the client tick tasks followed by any event tasks that have fired.
+	 * Must be called on the client thread.
+	 */
+	void clientTick()
+	{
+		run(clientTickTasks.get());
+
+		if (pendingEventTasks.get() != 0)
+		{
+			run(pendingEventTasks.getAndSet(0) & eventTasks.get());
+		}
+	}
+
+	/**
+	 * Runs the game tick tasks. Must be called on the client thread.
+	 */
+	void gameTick()
+	{
+		run(gameTickTasks.get());
+	}
+
+	/**
+	 * Unsubscribes every task and forgets any fired events.
+	 */
+	void clear()
+	{
+		clientTickTasks.set(0);
+		gameTickTasks.set(0);
+		eventTasks.set(0);
+		pendingEventTasks.set(0);
+	}
+
+	private void run(int mask)
+	{
+		while (mask != 0)
+		{
+			int id = Integer.numberOfTrailingZeros(mask);
+			mask &= mask - 1;
+			tasks[id].runnable.run();
+		}
+	}
+
+	private AtomicInteger subscriptions(Cadence cadence)
+	{
+		switch (cadence)
+		{
+			case CLIENT_TICK:
+				return clientTickTasks;
+			case GAME_TICK:
+				return gameTickTasks;
+			default:
+				return eventTasks;
+		}
+	}
+
+	private static void set(AtomicInteger mask, int bits)
+	{
+		int current;
+		do
+		{
+			current = mask.get();
+		}
+		while (!mask.compareAndSet(current, current | bits));
+	}
+
+	private static void clear(AtomicInteger mask, int bits)
+	{
+		int current;
+		do
+		{
+			current = mask.get();
+		}
+		while (!mask.compareAndSet(current, current & ~bits));
+	}
+
+	/**
+	 * How often a subscribed task runs.
+	 */
+	enum Cadence
+	{
+		/**
+		 * Every rendered frame.
+		 */
+		CLIENT_TICK,
+		/**
+		 * Every server tick (600ms).
+		 */
+		GAME_TICK,
+		/**
+		 * Once, on the client tick after its event fires.
+		 */
+		EVENT
+	}
+
+	/**
+	 * A registered task. Tasks may subscribe and unsubscribe from any thread, including from inside their own run.
+	 */
+	final class Task
+	{
+		private final int bit;
+		private final Cadence cadence;
+		private final String event;
+		private final Runnable runnable;
+
+		private Task(int id, Cadence cadence, String event, Runnable runnable)
+		{
+			this.bit = 1 << id;
+			this.cadence = cadence;
+			this.event = event;
+			this.runnable = runnable;
+		}
+
+		void subscribe()
+		{
+			set(subscriptions(cadence), bit);
+		}
+
+		void unsubscribe()
+		{
+			clear(subscriptions(cadence), bit);
+		}
+
+		boolean isSubscribed()
+		{
+			return (subscriptions(cadence).get() & bit) != 0;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+
+/**
+ * The values of {@link CameraKeysConfig} read every frame or key press, copied out of the config proxy.
+ * <p>
+ * A new {@link Snapshot} is built once when the camerakeys config group changes and swapped in as a whole,
+ * so the hot paths read plain final fields and never see a half updated config.
+ */
+@Singleton
+class CameraKeysSettings
+{
+	@Inject
+	private CameraKeysConfig config;
+
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Rebuilds the snapshot from the current config.
+	 */
+	void rebuild()
+	{
+		snapshot = new Snapshot(config);
+	}
+
+	/**
+	 * @return the current settings
+	 */
+	Snapshot get()
+	{
+		Snapshot current = snapshot;
+		if (current == null)
+		{
+			// not started yet, e.g. rendering before startUp
+			rebuild();
+			current = snapshot;
+		}
+		return current;
+	}
+
+	static final class Snapshot
+	{
+		final int zoom;
+		final CameraKeysConfig.ActivationType activationType;
+		final boolean zoomIndicatorEnabled;
+		final boolean zoomReadoutEnabled;
+		final boolean zoomAnimationEnabled;
+		final int zoomAnimationDuration;
+		final CameraKeysConfig.ZoomEasing zoomAnimationEasing;
+		final boolean directCameraEnabled;
+
+		/**
+		 * The turn key angle in yaw units.
+		 */
+		final int turnYaw;
+
+		/**
+		 * The rotation top speed and acceleration in yaw units a second, and a second squared.
+		 */
+		final double rotationSpeed;
+		final double rotationAcceleration;
+
+		final boolean latencyDebugEnabled;
+		final boolean stageTimingsEnabled;
+		final int stageBudget;
+		final boolean journalDumpOnShutdownEnabled;
+
+		private Snapshot(CameraKeysConfig config)
+		{
+			zoom = config.zoom();
+			activationType = config.getActivationType();
+			zoomIndicatorEnabled = config.isZoomIndicatorEnabled();
+			zoomReadoutEnabled = config.isZoomReadoutEnabled();
+			zoomAnimationEnabled = config.isZoomAnimationEnabled();
+			zoomAnimationDuration = config.zoomAnimationDuration();
+			zoomAnimationEasing = config.zoomAnimationEasing();
+			directCameraEnabled = config.isDirectCameraEnabled();
+			turnYaw = toYaw(config.turnAngle());
+			rotationSpeed = toYaw(config.rotationSpeed());
+			rotationAcceleration = toYaw(config.rotationAcceleration());
+			latencyDebugEnabled = config.isLatencyDebugEnabled();
+			stageTimingsEnabled = config.isStageTimingsEnabled();
+			stageBudget = config.stageBudget();
+			journalDumpOnShutdownEnabled = config.isJournalDumpOnShutdownEnabled();
+		}
+
+		/**
+		 * @param degrees an angle in degrees
+		 * @return the angle in camera yaw units, rounded
+		 */
+		private static int toYaw(int degrees)
+		{
+			return (int) Math.round(degrees * (double) CameraKeysRotation.YAW_UNITS / 360);
+		}
+	}
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import net.runelite.api.Client;
+import net.runelite.api.widgets.Widget;
+import net.runelite.api.widgets.WidgetInfo;
+
+/**
+ * Caches the widgets the plugin looks up on every key press and client tick, indexed by {@link WidgetInfo} ordinal.
+ * <p>
+ * Widgets are resolved lazily, including ones that do not exist, and the cache is cleared whenever
+ * interfaces are loaded or closed or the game state changes. Lookups may come from the key listener
+ * and the client thread; a lookup that races a {@link #clear()} is discarded and resolved again next time.
+ */
+@Singleton
+class CameraKeysWidgets
+{
+	/**
+	 * Marks a slot that has not been resolved since the last clear.
+	 */
+	private static final Object UNRESOLVED = new Object();
+
+	/**
+	 * Marks a slot whose widget does not exist.
+	 */
+	private static final Object MISSING = new Object();
+
+	private final Client client;
+
+	private final AtomicReferenceArray<Object> widgets = new AtomicReferenceArray<>(WidgetInfo.values().length);
+
+	/**
+	 * Incremented by every {@link #clear()} so lookups can tell if they raced one.
+	 */
+	private final AtomicInteger generation = new AtomicInteger();
+
+	@Inject
+	private CameraKeysWidgets(Client client)
+	{
+		this.client = client;
+		clear();
+	}
+
+	/**
+	 * @param widgetInfo the widget to get
+	 * @return the widget, or null if it does not exist
+	 */
+	Widget get(WidgetInfo widgetInfo)
+	{
+		final int index = widgetInfo.ordinal();
+		final Object cached = widgets.get(index);
+		if (cached == MISSING)
+		{
+			return null;
+		}
+		if (cached != UNRESOLVED)
+		{
+			return (Widget) cached;
+		}
+
+		final int expectedGeneration = generation.get();
+		final Widget widget = client.getWidget(widgetInfo);
+		widgets.set(index, widget == null ? MISSING : widget);
+		if (generation.get() != expectedGeneration)
+		{
+			// the widget may have been resolved before the clear
+			widgets.set(index, UNRESOLVED);
+		}
+		return widget;
+	}
+
+	/**
+	 * Forgets every cached widget.
+	 */
+	void clear()
+	{
+		generation.incrementAndGet();
+		for (int i = 0; i < widgets.length(); i++)
+		{
+			widgets.set(i, UNRESOLVED);
+		}
+	}
+}
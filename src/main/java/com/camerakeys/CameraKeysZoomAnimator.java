@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+/**
+ * Animates the zoom level between two values over a fixed wall clock duration.
+ * <p>
+ * Driven by elapsed time rather than frames, so the animation takes as long at 20 fps as it does at 144 fps.
+ */
+class CameraKeysZoomAnimator
+{
+	private int from;
+	private int to;
+	private int current;
+	private long startNanos;
+	private long durationNanos;
+	private CameraKeysConfig.ZoomEasing easing = CameraKeysConfig.ZoomEasing.LINEAR;
+	private boolean running;
+
+	/**
+	 * Starts a new animation, replacing any running one.
+	 *
+	 * @param from          the zoom level to start from
+	 * @param to            the zoom level to end at
+	 * @param nowNanos      the current {@link System#nanoTime()}
+	 * @param durationNanos how long the animation takes
+	 * @param easing        the speed curve of the animation
+	 */
+	void start(int from, int to, long nowNanos, long durationNanos, CameraKeysConfig.ZoomEasing easing)
+	{
+		this.from = from;
+		this.to = to;
+		this.current = from;
+		this.startNanos = nowNanos;
+		this.durationNanos = durationNanos;
+		this.easing = easing;
+		this.running = true;
+	}
+
+	/**
+	 * Advances the animation. The animation stops once it reaches its target.
+	 *
+	 * @param nowNanos the current {@link System#nanoTime()}
+	 * @return the zoom level for this frame
+	 */
+	int step(long nowNanos)
+	{
+		final long elapsed = nowNanos - startNanos;
+		if (elapsed >= durationNanos)
+		{
+			current = to;
+			running = false;
+		}
+		else
+		{
+			final double progress = easing.ease((double) Math.max(elapsed, 0) / durationNanos);
+			current = from + (int) Math.round((to - from) * progress);
+		}
+		return current;
+	}
+
+	/**
+	 * Stops the animation where it is.
+	 */
+	void stop()
+	{
+		running = false;
+	}
+
+	boolean isRunning()
+	{
+		return running;
+	}
+
+	/**
+	 * @return the zoom level of the last step
+	 */
+	int getCurrent()
+	{
+		return current;
+	}
+
+	/**
+	 * @return the zoom level the animation ends at
+	 */
+	int getTarget()
+	{
+		return to;
+	}
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.Arrays;
+
+/**
+ * The zoom key state machine, as a transition table over ({@link CameraKeysConfig.ActivationType}, {@link ZoomState}, {@link ZoomEvent}).
+ * <p>
+ * ZOOM, SET and RESET are transient states: the plugin moves the camera for them on the next client tick and then
+ * fires {@link ZoomEvent#APPLIED}. A new activation type is a new block of rows, and a new trigger such as a timeout
+ * or a double tap is a new {@link ZoomEvent} column, without touching the code that drives the machine.
+ */
+final class CameraKeysZoomStateMachine
+{
+	private static final CameraKeysConfig.ActivationType[] ACTIVATION_TYPES = CameraKeysConfig.ActivationType.values();
+	private static final ZoomState[] STATES = ZoomState.values();
+	private static final ZoomEvent[] EVENTS = ZoomEvent.values();
+
+	/**
+	 * Marks an event that does not change the state.
+	 */
+	private static final byte NO_CHANGE = -1;
+
+	/**
+	 * The next state ordinal, indexed by {@link #index}.
+	 */
+	private static final byte[] TRANSITIONS = new byte[ACTIVATION_TYPES.length * STATES.length * EVENTS.length];
+
+	static
+	{
+		Arrays.fill(TRANSITIONS, NO_CHANGE);
+
+		for (CameraKeysConfig.ActivationType activationType : ACTIVATION_TYPES)
+		{
+			// the camera has been moved for a transient state
+			set(activationType, ZoomState.ZOOM, ZoomEvent.APPLIED, ZoomState.ON);
+			set(activationType, ZoomState.SET, ZoomEvent.APPLIED, ZoomState.OFF);
+			set(activationType, ZoomState.RESET, ZoomEvent.APPLIED, ZoomState.OFF);
+
+			// the user scrolled away from the zoom level
+			set(activationType, ZoomState.ON, ZoomEvent.CANCELLED, ZoomState.OFF);
+
+			// a macro sets the zoom level unless the zoom key is zoomed, which would lose the level to go back to
+			for (ZoomState state : STATES)
+			{
+				if (state != ZoomState.ZOOM && state != ZoomState.ON)
+				{
+					set(activationType, state, ZoomEvent.MACRO_SET, ZoomState.SET);
+				}
+			}
+		}
+
+		// Hold: zoom while the key is held down
+		set(CameraKeysConfig.ActivationType.HOLD, ZoomState.OFF, ZoomEvent.PRESSED, ZoomState.ZOOM);
+		set(CameraKeysConfig.ActivationType.HOLD, ZoomState.SET, ZoomEvent.PRESSED, ZoomState.ZOOM);
+		set(CameraKeysConfig.ActivationType.HOLD, ZoomState.RESET, ZoomEvent.PRESSED, ZoomState.ZOOM);
+		set(CameraKeysConfig.ActivationType.HOLD, ZoomState.ON, ZoomEvent.RELEASED, ZoomState.RESET);
+		// a tap within one frame, released before the zoom was applied so there is nothing to put back
+		set(CameraKeysConfig.ActivationType.HOLD, ZoomState.ZOOM, ZoomEvent.RELEASED, ZoomState.OFF);
+
+		// Toggle: zoom on one press and back on the next
+		set(CameraKeysConfig.ActivationType.TOGGLE, ZoomState.OFF, ZoomEvent.PRESSED, ZoomState.ZOOM);
+		set(CameraKeysConfig.ActivationType.TOGGLE, ZoomState.ON, ZoomEvent.PRESSED, ZoomState.RESET);
+
+		// Set: every press sets the zoom level
+		for (ZoomState state : STATES)
+		{
+			set(CameraKeysConfig.ActivationType.SET, state, ZoomEvent.PRESSED, ZoomState.SET);
+		}
+	}
+
+	private CameraKeysZoomStateMachine()
+	{
+	}
+
+	/**
+	 * @param activationType the zoom key activation type
+	 * @param state          the current state
+	 * @param event          the event
+	 * @return the next state, or null if the event does not change the state
+	 */
+	static ZoomState next(CameraKeysConfig.ActivationType activationType, ZoomState state, ZoomEvent event)
+	{
+		final byte next = TRANSITIONS[index(activationType, state, event)];
+		return next == NO_CHANGE ? null : STATES[next];
+	}
+
+	private static void set(CameraKeysConfig.ActivationType activationType, ZoomState state, ZoomEvent event, ZoomState next)
+	{
+		TRANSITIONS[index(activationType, state, event)] = (byte) next.ordinal();
+	}
+
+	private static int index(CameraKeysConfig.ActivationType activationType, ZoomState state, ZoomEvent event)
+	{
+		return (activationType.ordinal() * STATES.length + state.ordinal()) * EVENTS.length + event.ordinal();
+	}
+
+	enum ZoomState
+	{
+		ON,
+		ZOOM,
+		SET,
+		RESET,
+		OFF
+	}
+
+	enum ZoomEvent
+	{
+		/**
+		 * The zoom key was pressed.
+		 */
+		PRESSED,
+		/**
+		 * The zoom key was released.
+		 */
+		RELEASED,
+		/**
+		 * The camera was moved for a transient state.
+		 */
+		APPLIED,
+		/**
+		 * The user scrolled the zoom away from the zoom level.
+		 */
+		CANCELLED,
+		/**
+		 * A macro set the zoom level.
+		 */
+		MACRO_SET
+	}
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.awt.Graphics2D;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import net.runelite.api.Client;
+import net.runelite.api.ScriptID;
+import net.runelite.api.VarClientInt;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Allocation budgets for the paths that run on every frame and every key event.
+ * <p>
+ * Each path is warmed up so it is compiled, then run many times while {@link com.sun.management.ThreadMXBean}
+ * counts the bytes the thread allocates, keeping the lowest of a few rounds. The {@link FakeClient} is a
+ * {@link java.lang.reflect.Proxy}, which boxes the arguments of every call, so paths that call the client with
+ * arguments are allowed what the same calls cost on their own.
+ * <p>
+ * The paths that make no client calls with arguments, the idle frames, the game tick and the key events, must
+ * allocate nothing at all. The JIT usually removes the proxy's boxing too, but not always, e.g. with a coverage agent
+ * or on another compiler, so only the paths that call the client with arguments get a {@link #CLIENT_CALL_TOLERANCE_BYTES}
+ * tolerance. The budgets are for compiled code and are skipped on an interpreter only JVM.
+ */
+public class CameraKeysAllocationTest
+{
+	private static final int WARMUP_ITERATIONS = 50_000;
+	private static final int ITERATIONS = 100_000;
+	private static final int ROUNDS = 3;
+
+	/**
+	 * Bytes per call allowed over the budget of a path that calls the client with arguments, for the few proxy calls
+	 * the JIT did not remove the boxing of.
+	 */
+	private static final long CLIENT_CALL_TOLERANCE_BYTES = 64;
+
+	private static com.sun.management.ThreadMXBean threads;
+
+	@BeforeClass
+	public static void setUpClass()
+	{
+		assumeTrue(ManagementFactory.getCompilationMXBean() != null);
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+	}
+
+	@Test
+	public void testIdleTick() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+
+		assertBudget("idle client tick", 0, harness::clientTick);
+	}
+
+	@Test
+	public void testZoomedTick() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+		harness.commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_PRESSED);
+		harness.clientTick();
+
+		assertBudget("zoomed client tick", 0, harness::clientTick);
+	}
+
+	@Test
+	public void testGameTick() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+
+		assertBudget("game tick", 0, harness::gameTick);
+	}
+
+	@Test
+	public void testUnboundKey() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+		final KeyEvent pressed = CameraKeysHarness.keyPressed(KeyEvent.VK_Q);
+		final KeyEvent released = CameraKeysHarness.keyReleased(KeyEvent.VK_Q);
+
+		assertBudget("unbound key", 0, () ->
+		{
+			harness.listener.keyPressed(pressed);
+			harness.listener.keyReleased(released);
+		});
+	}
+
+	@Test
+	public void testCompassKey() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+		final KeyEvent pressed = CameraKeysHarness.keyPressed(KeyEvent.VK_N);
+		final KeyEvent released = CameraKeysHarness.keyReleased(KeyEvent.VK_N);
+
+		assertBudget("compass key", 0, () ->
+		{
+			harness.listener.keyPressed(pressed);
+			harness.listener.keyReleased(released);
+			harness.discardCommands();
+		});
+	}
+
+	@Test
+	public void testKeyRepeat() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+		final KeyEvent pressed = CameraKeysHarness.keyPressed(KeyEvent.VK_N);
+		harness.listener.keyPressed(pressed);
+		harness.discardCommands();
+
+		assertBudget("key repeat", 0, () -> harness.listener.keyPressed(pressed));
+	}
+
+	@Test
+	public void testMouseWheel() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+		final MouseWheelEvent scrolled = CameraKeysHarness.mouseWheelEvent(1, 0);
+
+		assertBudget("mouse wheel", 0, () ->
+		{
+			harness.listener.mouseWheelMoved(scrolled);
+			harness.discardCommands();
+		});
+	}
+
+	@Test
+	public void testCompassFrame() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+		final KeyEvent pressed = CameraKeysHarness.keyPressed(KeyEvent.VK_N);
+		final KeyEvent released = CameraKeysHarness.keyReleased(KeyEvent.VK_N);
+		final Client client = harness.fakeClient.client;
+
+		// one camera target write a frame
+		final long budget = measure(() -> client.setCameraYawTarget(0));
+		assertClientBudget("compass key frame", budget, () ->
+		{
+			harness.listener.keyPressed(pressed);
+			harness.listener.keyReleased(released);
+			harness.clientTick();
+		});
+	}
+
+	@Test
+	public void testRotationTick() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+		harness.commandQueue.offer(CameraKeysCommandQueue.Command.ROTATE_PRESSED, 1);
+		harness.clientTick();
+		final Client client = harness.fakeClient.client;
+
+		// one camera target write a frame, with a yaw that is too big to be a cached Integer
+		final long budget = measure(() -> client.setCameraYawTarget(1000));
+		assertClientBudget("rotation tick", budget, harness::clientTick);
+	}
+
+	@Test
+	public void testZoomAnimationTick() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		// long enough to still be running when the measurement ends
+		harness.config.zoomAnimation = true;
+		harness.config.zoomAnimationDuration = 3_600_000;
+		harness.start();
+		harness.commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_PRESSED);
+		harness.clientTick();
+		final Client client = harness.fakeClient.client;
+
+		// one zoom script a frame, then reading back the zoom it set
+		final long budget = measure(() ->
+		{
+			client.runScript(ScriptID.CAMERA_DO_ZOOM, 600, 600);
+			client.isResized();
+			client.getVarcIntValue(VarClientInt.CAMERA_ZOOM_FIXED_VIEWPORT);
+		});
+		assertClientBudget("zoom animation tick", budget, harness::clientTick);
+	}
+
+	@Test
+	public void testOverlayRender() throws Exception
+	{
+		final Graphics2D graphics = new BufferedImage(256, 256, BufferedImage.TYPE_INT_ARGB).createGraphics();
+
+		final CameraKeysHarness icon = new CameraKeysHarness();
+		icon.config.zoomReadout = false;
+		icon.start();
+		final long iconBytes = measure(() -> icon.overlay.render(graphics));
+
+		final CameraKeysHarness readout = new CameraKeysHarness();
+		readout.start();
+		final Client client = readout.fakeClient.client;
+
+		// an unchanged readout costs what the icon does, plus reading the zoom and heading from the client
+		final long budget = iconBytes + measure(() ->
+		{
+			client.isResized();
+			client.getVarcIntValue(VarClientInt.CAMERA_ZOOM_FIXED_VIEWPORT);
+			client.getCameraYaw();
+		});
+		assertClientBudget("overlay render", budget, () -> readout.overlay.render(graphics));
+	}
+
+	private static void assertBudget(String path, long budget, Runnable runnable)
+	{
+		final long bytes = measure(runnable);
+		assertTrue(path + " allocated " + bytes + " bytes per call, over its budget of " + budget, bytes <= budget);
+	}
+
+	/**
+	 * Checks the budget of a path that calls the {@link FakeClient} with arguments, with {@link #CLIENT_CALL_TOLERANCE_BYTES}
+	 * for the proxy's boxing.
+	 */
+	private static void assertClientBudget(String path, long budget, Runnable runnable)
+	{
+		assertBudget(path, budget + CLIENT_CALL_TOLERANCE_BYTES, runnable);
+	}
+
+	/**
+	 * @return the bytes allocated per run once warmed up, the lowest of {@link #ROUNDS} rounds so a
+	 * recompilation part way through one does not count
+	 */
+	private static long measure(Runnable runnable)
+	{
+		for (int i = 0; i < WARMUP_ITERATIONS; i++)
+		{
+			runnable.run();
+		}
+
+		final long thread = Thread.currentThread().getId();
+		long lowest = Long.MAX_VALUE;
+		for (int round = 0; round < ROUNDS; round++)
+		{
+			final long start = threads.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < ITERATIONS; i++)
+			{
+				runnable.run();
+			}
+			lowest = Math.min(lowest, (threads.getThreadAllocatedBytes(thread) - start) / ITERATIONS);
+		}
+		return lowest;
+	}
+}
@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.camerakeys;
+
+import com.google.inject.Guice;
+import com.google.inject.Module;
+import java.awt.event.KeyEvent;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class CameraKeysBindingsTest
+{
+	@Test
+	public void testExtraKeys()
+	{
+		final CameraKeysBindings bindings = bindings("north = ctrl+M, NUMPAD8, f5 # many keys\n\nZOOM = shift+ctrl+Z\nrotate_left = LEFT\n");
+
+		assertEquals(CameraKeysBindings.Action.NORTH.mask, pressed(bindings, KeyEvent.VK_M, KeyEvent.CTRL_DOWN_MASK));
+		assertEquals(0, pressed(bindings, KeyEvent.VK_M, 0));
+		assertEquals(CameraKeysBindings.Action.NORTH.mask, pressed(bindings, KeyEvent.VK_NUMPAD8, 0));
+		assertEquals(CameraKeysBindings.Action.NORTH.mask, pressed(bindings, KeyEvent.VK_F5, 0));
+		assertEquals(CameraKeysBindings.Action.ZOOM.mask, pressed(bindings, KeyEvent.VK_Z, KeyEvent.SHIFT_DOWN_MASK | KeyEvent.CTRL_DOWN_MASK));
+		assertEquals(CameraKeysBindings.Action.ROTATE_LEFT.mask, pressed(bindings, KeyEvent.VK_LEFT, 0));
+
+		// released whatever modifiers are held
+		assertEquals(CameraKeysBindings.Action.NORTH.mask,
+			bindings.releasedActions(CameraKeysHarness.keyEvent(KeyEvent.KEY_RELEASED, KeyEvent.VK_M, 0)));
+	}
+
+	@Test
+	public void testBadExtraKeys()
+	{
+		final CameraKeysBindings bindings = bindings("north = A, NOT_A_KEY\nsideways = B\nsouth G\neast = hyper+D\nwest = E");
+
+		// a line with any bad key binds none of its keys
+		assertEquals(0, pressed(bindings, KeyEvent.VK_A, 0));
+		assertEquals(0, pressed(bindings, KeyEvent.VK_B, 0));
+		assertEquals(0, pressed(bindings, KeyEvent.VK_G, 0));
+		assertEquals(0, pressed(bindings, KeyEvent.VK_D, 0));
+		assertEquals(CameraKeysBindings.Action.WEST.mask, pressed(bindings, KeyEvent.VK_E, 0));
+	}
+
+	private static CameraKeysBindings bindings(String extraKeys)
+	{
+		final FakeConfig config = new FakeConfig();
+		config.extraKeys = extraKeys;
+		final CameraKeysBindings bindings = Guice.createInjector((Module) binder -> binder.bind(CameraKeysConfig.class).toInstance(config))
+			.getInstance(CameraKeysBindings.class);
+		bindings.rebuild();
+		return bindings;
+	}
+
+	private static int pressed(CameraKeysBindings bindings, int keyCode, int modifiersEx)
+	{
+		return bindings.pressedActions(CameraKeysHarness.keyEvent(KeyEvent.KEY_PRESSED, keyCode, modifiersEx));
+	}
+}
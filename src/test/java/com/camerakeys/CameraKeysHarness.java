@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import com.google.inject.Module;
+import com.google.inject.Scopes;
+import com.google.inject.util.Providers;
+import java.awt.Canvas;
+import java.awt.Component;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseWheelEvent;
+import java.util.concurrent.ScheduledExecutorService;
+import net.runelite.api.Client;
+import net.runelite.api.events.ClientTick;
+import net.runelite.api.events.GameTick;
+import net.runelite.client.callback.ClientThread;
+import net.runelite.client.input.KeyManager;
+import net.runelite.client.input.MouseManager;
+import net.runelite.client.plugins.PluginManager;
+import net.runelite.client.plugins.keyremapping.KeyRemappingPlugin;
+import net.runelite.client.ui.overlay.OverlayManager;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Wires the plugin, its key listener and its overlay to in-memory stand-ins of the client, so the
+ * per-frame and per-key paths can be driven without a running client.
+ */
+final class CameraKeysHarness
+{
+	private static final ClientTick CLIENT_TICK = new ClientTick();
+	private static final GameTick GAME_TICK = new GameTick();
+	private static final Component KEY_EVENT_SOURCE = new Canvas();
+
+	final FakeClient fakeClient = new FakeClient();
+	final FakeClientThread clientThread = new FakeClientThread();
+	final FakeConfig config = new FakeConfig();
+	final OverlayManager overlayManager = mock(OverlayManager.class);
+	final KeyManager keyManager = mock(KeyManager.class);
+	final MouseManager mouseManager = mock(MouseManager.class);
+
+	final CameraKeysPlugin plugin;
+	final CameraKeysListener listener;
+	final CameraKeysOverlay overlay;
+	final CameraKeysCommandQueue commandQueue;
+	final CameraKeysBindings bindings;
+	final CameraKeysJournal journal;
+
+	CameraKeysHarness()
+	{
+		Injector injector = Guice.createInjector((Module) binder ->
+		{
+			binder.bind(Client.class).toInstance(fakeClient.client);
+			binder.bind(ClientThread.class).toProvider(Providers.of(clientThread));
+			binder.bind(CameraKeysConfig.class).toInstance(config);
+			binder.bind(OverlayManager.class).toProvider(Providers.of(overlayManager));
+			binder.bind(KeyManager.class).toProvider(Providers.of(keyManager));
+			binder.bind(MouseManager.class).toProvider(Providers.of(mouseManager));
+			binder.bind(PluginManager.class).toProvider(Providers.of(mock(PluginManager.class)));
+			binder.bind(KeyRemappingPlugin.class).toProvider(Providers.of(mock(KeyRemappingPlugin.class)));
+			binder.bind(ScheduledExecutorService.class).toProvider(Providers.of(mock(ScheduledExecutorService.class)));
+			binder.bind(CameraKeysPlugin.class).in(Scopes.SINGLETON);
+			binder.bind(CameraKeysOverlay.class).in(Scopes.SINGLETON);
+		});
+
+		plugin = injector.getInstance(CameraKeysPlugin.class);
+		listener = injector.getInstance(CameraKeysListener.class);
+		overlay = injector.getInstance(CameraKeysOverlay.class);
+		commandQueue = injector.getInstance(CameraKeysCommandQueue.class);
+		bindings = injector.getInstance(CameraKeysBindings.class);
+		journal = injector.getInstance(CameraKeysJournal.class);
+	}
+
+	/**
+	 * Starts the plugin and runs one client tick, so the key listener sees a published input context
+	 * as it would in a running client.
+	 */
+	void start() throws Exception
+	{
+		plugin.startUp();
+		clientTick();
+	}
+
+	void stop() throws Exception
+	{
+		plugin.shutDown();
+	}
+
+	void clientTick()
+	{
+		plugin.onClientTick(CLIENT_TICK);
+	}
+
+	void gameTick()
+	{
+		plugin.onGameTick(GAME_TICK);
+	}
+
+	/**
+	 * Throws away any commands the listener has queued without running them.
+	 */
+	void discardCommands()
+	{
+		int discarded;
+		do
+		{
+			discarded = commandQueue.poll();
+		}
+		while (discarded != CameraKeysCommandQueue.EMPTY);
+	}
+
+	static KeyEvent keyPressed(int keyCode)
+	{
+		return keyEvent(KeyEvent.KEY_PRESSED, keyCode, 0);
+	}
+
+	static KeyEvent keyReleased(int keyCode)
+	{
+		return keyEvent(KeyEvent.KEY_RELEASED, keyCode, 0);
+	}
+
+	static KeyEvent keyEvent(int id, int keyCode, int modifiersEx)
+	{
+		return keyEvent(id, keyCode, modifiersEx, 0);
+	}
+
+	static KeyEvent keyEvent(int id, int keyCode, int modifiersEx, long when)
+	{
+		return new KeyEvent(KEY_EVENT_SOURCE, id, when, modifiersEx, keyCode, KeyEvent.CHAR_UNDEFINED);
+	}
+
+	static MouseWheelEvent mouseWheelEvent(int wheelRotation, long when)
+	{
+		return new MouseWheelEvent(KEY_EVENT_SOURCE, MouseWheelEvent.MOUSE_WHEEL, when, 0, 0, 0, 0, false,
+			MouseWheelEvent.WHEEL_UNIT_SCROLL, 3, wheelRotation);
+	}
+}
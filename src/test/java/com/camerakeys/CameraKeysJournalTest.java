@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.awt.event.KeyEvent;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.StringReader;
+import java.util.List;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class CameraKeysJournalTest
+{
+	@Test
+	public void testDumpAndDecode() throws Exception
+	{
+		final CameraKeysJournal journal = new CameraKeysJournal();
+		journal.record(CameraKeysJournal.Event.KEY_PRESSED, 0, KeyEvent.VK_C);
+		journal.record(CameraKeysJournal.Event.ZOOM_STATE, CameraKeysZoomStateMachine.ZoomState.OFF.ordinal(), CameraKeysZoomStateMachine.ZoomState.ZOOM.ordinal());
+		journal.record(CameraKeysJournal.Event.SCROLLED, 0, -1);
+		journal.record(CameraKeysJournal.Event.TYPING, 1, 0);
+
+		final List<String> lines = dumpAndDecode(journal, 4);
+		assertTrue(lines.get(0), lines.get(0).contains("4 records, 0 older records lost"));
+		assertTrue(lines.get(1), lines.get(1).endsWith("KEY_PRESSED " + KeyEvent.getKeyText(KeyEvent.VK_C) + " (" + KeyEvent.VK_C + ")"));
+		assertTrue(lines.get(2), lines.get(2).endsWith("ZOOM_STATE OFF -> ZOOM"));
+		assertTrue(lines.get(3), lines.get(3).endsWith("SCROLLED -1"));
+		assertTrue(lines.get(4), lines.get(4).endsWith("TYPING true"));
+	}
+
+	@Test
+	public void testExportTrace() throws Exception
+	{
+		final CameraKeysJournal journal = new CameraKeysJournal();
+		journal.record(CameraKeysJournal.Event.KEY_PRESSED, 0, KeyEvent.VK_C);
+		journal.record(CameraKeysJournal.Event.ZOOM_STATE, CameraKeysZoomStateMachine.ZoomState.OFF.ordinal(), CameraKeysZoomStateMachine.ZoomState.ZOOM.ordinal());
+		journal.record(CameraKeysJournal.Event.SCROLLED, 0, -2);
+		journal.record(CameraKeysJournal.Event.KEY_PRESSED, KeyEvent.CTRL_DOWN_MASK, KeyEvent.VK_N);
+		journal.record(CameraKeysJournal.Event.KEY_RELEASED, 0, KeyEvent.VK_C);
+
+		final File file = File.createTempFile("camerakeys-journal", ".bin");
+		try
+		{
+			journal.dump(file);
+			final List<String> lines = CameraKeysJournalDecoder.toTrace(file);
+			final KeyTrace trace = KeyTrace.parse(new BufferedReader(new StringReader(String.join("\n", lines))));
+
+			// the zoom state change and the key combination are comments
+			assertEquals(lines.toString(), 3, trace.events.size());
+			assertEquals(KeyTrace.EventType.PRESS, trace.events.get(0).type);
+			assertEquals(KeyEvent.VK_C, trace.events.get(0).value);
+			assertEquals(0, trace.events.get(0).timeMs);
+			assertEquals(KeyTrace.EventType.SCROLL, trace.events.get(1).type);
+			assertEquals(2 * CameraKeysJournalDecoder.TRACE_ZOOM_PER_NOTCH, trace.events.get(1).value);
+			assertEquals(KeyTrace.EventType.RELEASE, trace.events.get(2).type);
+			assertEquals(KeyEvent.VK_C, trace.events.get(2).value);
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testWrapKeepsNewest() throws Exception
+	{
+		final CameraKeysJournal journal = new CameraKeysJournal();
+		for (int i = 0; i < CameraKeysJournal.CAPACITY + 10; i++)
+		{
+			journal.record(CameraKeysJournal.Event.SCRIPT, 1050, i);
+		}
+
+		final List<String> lines = dumpAndDecode(journal, CameraKeysJournal.CAPACITY);
+		assertTrue(lines.get(0), lines.get(0).contains("10 older records lost"));
+		assertTrue(lines.get(1), lines.get(1).endsWith("SCRIPT 1050 10"));
+		assertTrue(lines.get(lines.size() - 1), lines.get(lines.size() - 1).endsWith("SCRIPT 1050 " + (CameraKeysJournal.CAPACITY + 9)));
+	}
+
+	@Test
+	public void testConcurrentWriters() throws Exception
+	{
+		final CameraKeysJournal journal = new CameraKeysJournal();
+		final Thread[] writers = new Thread[4];
+		for (int t = 0; t < writers.length; t++)
+		{
+			final int writer = t;
+			writers[t] = new Thread(() ->
+			{
+				for (int i = 0; i < 100_000; i++)
+				{
+					journal.record(CameraKeysJournal.Event.SCRIPT, writer, i);
+				}
+			});
+			writers[t].start();
+		}
+		for (Thread writer : writers)
+		{
+			writer.join();
+		}
+
+		final File file = File.createTempFile("camerakeys-journal", ".bin");
+		try
+		{
+			// a writer that laps a slower one can leave a slot holding an older record, which the dump skips
+			final int records = journal.dump(file);
+			assertTrue(records + " records", records >= CameraKeysJournal.CAPACITY - writers.length && records <= CameraKeysJournal.CAPACITY);
+
+			// every record is a whole record from one of the writers
+			final List<String> lines = CameraKeysJournalDecoder.decode(file);
+			for (String line : lines.subList(1, lines.size()))
+			{
+				assertTrue(line, line.matches(".* SCRIPT [0-3] \\d+"));
+			}
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	@Test
+	public void testPacking()
+	{
+		final long payload = CameraKeysJournal.pack(CameraKeysJournal.Event.KEY_RELEASED, KeyEvent.SHIFT_DOWN_MASK | KeyEvent.CTRL_DOWN_MASK, 0x01000000 + 0x20AC);
+		assertEquals(CameraKeysJournal.Event.KEY_RELEASED, CameraKeysJournal.event(payload));
+		assertEquals(KeyEvent.SHIFT_DOWN_MASK | KeyEvent.CTRL_DOWN_MASK, CameraKeysJournal.a(payload));
+		assertEquals(0x01000000 + 0x20AC, CameraKeysJournal.b(payload));
+		assertEquals(Integer.MIN_VALUE, CameraKeysJournal.b(CameraKeysJournal.pack(CameraKeysJournal.Event.SCROLLED, 0, Integer.MIN_VALUE)));
+	}
+
+	@Test
+	public void testTypedChatNotRecorded() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+
+		// open the chat, type a message and send it
+		type(harness, KeyEvent.VK_ENTER);
+		harness.clientTick();
+		for (char c : "HELLO 1234".toCharArray())
+		{
+			type(harness, c);
+		}
+		type(harness, KeyEvent.VK_ENTER);
+		harness.clientTick();
+
+		// only the key that opened the chat is recorded
+		final File file = File.createTempFile("camerakeys-journal", ".bin");
+		try
+		{
+			harness.journal.dump(file);
+			int keys = 0;
+			for (String line : CameraKeysJournalDecoder.decode(file))
+			{
+				if (line.contains("KEY_PRESSED") || line.contains("KEY_RELEASED"))
+				{
+					assertTrue(line, line.endsWith("KEY_PRESSED " + KeyEvent.getKeyText(KeyEvent.VK_ENTER) + " (" + KeyEvent.VK_ENTER + ")"));
+					keys++;
+				}
+			}
+			assertEquals(1, keys);
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+
+	private static void type(CameraKeysHarness harness, int keyCode)
+	{
+		harness.listener.keyPressed(CameraKeysHarness.keyPressed(keyCode));
+		harness.listener.keyReleased(CameraKeysHarness.keyReleased(keyCode));
+	}
+
+	private static List<String> dumpAndDecode(CameraKeysJournal journal, int records) throws Exception
+	{
+		final File file = File.createTempFile("camerakeys-journal", ".bin");
+		try
+		{
+			assertEquals(records, journal.dump(file));
+			assertEquals(CameraKeysJournal.HEADER_BYTES + (long) records * CameraKeysJournal.RECORD_BYTES, file.length());
+			final List<String> lines = CameraKeysJournalDecoder.decode(file);
+			assertEquals(records + 1, lines.size());
+			return lines;
+		}
+		finally
+		{
+			file.delete();
+		}
+	}
+}
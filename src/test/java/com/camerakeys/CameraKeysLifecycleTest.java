@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.camerakeys;
+
+import net.runelite.api.GameState;
+import net.runelite.api.events.FocusChanged;
+import net.runelite.api.events.GameStateChanged;
+import net.runelite.client.events.ConfigChanged;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import org.junit.Test;
+import org.mockito.InOrder;
+import static org.mockito.Mockito.inOrder;
+
+public class CameraKeysLifecycleTest
+{
+	@Test
+	public void testStopBeforeInitialize() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.clientThread.onClientThread = false;
+
+		// toggled off before the client thread has run the initialization
+		harness.plugin.startUp();
+		harness.plugin.shutDown();
+		harness.clientThread.runQueued();
+
+		final InOrder order = inOrder(harness.keyManager, harness.mouseManager);
+		order.verify(harness.keyManager).registerKeyListener(harness.listener);
+		order.verify(harness.mouseManager).registerMouseWheelListener(harness.listener);
+		order.verify(harness.keyManager).unregisterKeyListener(harness.listener);
+		order.verify(harness.mouseManager).unregisterMouseWheelListener(harness.listener);
+	}
+
+	@Test
+	public void testStopRestoresZoomWithoutChatHandling() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.config.activationType = CameraKeysConfig.ActivationType.TOGGLE;
+		harness.start();
+
+		// the key remapping plugin takes over the chat
+		final ConfigChanged configChanged = new ConfigChanged();
+		configChanged.setGroup("runelite");
+		configChanged.setKey("keyremappingplugin");
+		configChanged.setNewValue("true");
+		harness.plugin.onConfigChanged(configChanged);
+
+		harness.commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_PRESSED);
+		harness.clientTick();
+		assertEquals(harness.config.zoom, harness.fakeClient.getZoom());
+
+		harness.stop();
+		assertEquals(512, harness.fakeClient.getZoom());
+	}
+
+	@Test
+	public void testFocusLostStopsRotation() throws Exception
+	{
+		final CameraKeysHarness harness = startRotation();
+
+		// alt-tab while the rotate key is held, so its release never arrives
+		final FocusChanged focusChanged = new FocusChanged();
+		focusChanged.setFocused(false);
+		harness.plugin.onFocusChanged(focusChanged);
+		assertRotationStopped(harness);
+	}
+
+	@Test
+	public void testLogoutStopsRotation() throws Exception
+	{
+		final CameraKeysHarness harness = startRotation();
+
+		final GameStateChanged gameStateChanged = new GameStateChanged();
+		gameStateChanged.setGameState(GameState.LOGIN_SCREEN);
+		harness.plugin.onGameStateChanged(gameStateChanged);
+		assertRotationStopped(harness);
+	}
+
+	private static CameraKeysHarness startRotation() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.start();
+		harness.commandQueue.offer(CameraKeysCommandQueue.Command.ROTATE_PRESSED, 1);
+		harness.clientTick();
+		final int writes = harness.fakeClient.cameraTargetWrites;
+		Thread.sleep(20);
+		harness.clientTick();
+		assertNotEquals(writes, harness.fakeClient.cameraTargetWrites);
+		return harness;
+	}
+
+	private static void assertRotationStopped(CameraKeysHarness harness) throws Exception
+	{
+		harness.clientTick();
+		final int writes = harness.fakeClient.cameraTargetWrites;
+		Thread.sleep(20);
+		harness.clientTick();
+		assertEquals(writes, harness.fakeClient.cameraTargetWrites);
+	}
+}
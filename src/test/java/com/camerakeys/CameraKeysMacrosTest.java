@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.camerakeys;
+
+import com.google.inject.Guice;
+import com.google.inject.Module;
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class CameraKeysMacrosTest
+{
+	@Test
+	public void testCompile()
+	{
+		final CameraKeysMacros.Program program = compile("north, overhead; zoom 200\npitch 300");
+		assertEquals(4, program.end(0) - program.start(0));
+		assertOperation(program, 0, CameraKeysMacros.Operation.COMPASS, CameraKeysPlugin.CardinalDirections.NORTH.ordinal());
+		assertOperation(program, 1, CameraKeysMacros.Operation.PITCH, CameraKeysMacros.MAX_PITCH);
+		assertOperation(program, 2, CameraKeysMacros.Operation.ZOOM, 200);
+		assertOperation(program, 3, CameraKeysMacros.Operation.PITCH, 300);
+	}
+
+	@Test
+	public void testPitchBounds()
+	{
+		final CameraKeysMacros.Program program = compile("pitch 127, pitch 128, pitch 383, pitch 384, pitch -1");
+		assertEquals(2, program.end(0) - program.start(0));
+		assertOperation(program, 0, CameraKeysMacros.Operation.PITCH, 128);
+		assertOperation(program, 1, CameraKeysMacros.Operation.PITCH, 383);
+	}
+
+	@Test
+	public void testZoomBounds()
+	{
+		final CameraKeysMacros.Program program = compile("zoom -273, zoom -272, zoom 0, zoom 1300, zoom 1301");
+		assertEquals(3, program.end(0) - program.start(0));
+		assertOperation(program, 0, CameraKeysMacros.Operation.ZOOM, CameraKeysConfig.MIN_ZOOM);
+		assertOperation(program, 1, CameraKeysMacros.Operation.ZOOM, 0);
+		assertOperation(program, 2, CameraKeysMacros.Operation.ZOOM, CameraKeysConfig.MAX_ZOOM);
+	}
+
+	private static CameraKeysMacros.Program compile(String macro)
+	{
+		final FakeConfig config = new FakeConfig();
+		config.macro1 = macro;
+		final CameraKeysMacros macros = Guice.createInjector((Module) binder -> binder.bind(CameraKeysConfig.class).toInstance(config))
+			.getInstance(CameraKeysMacros.class);
+		macros.rebuild();
+		return macros.getProgram();
+	}
+
+	private static void assertOperation(CameraKeysMacros.Program program, int index, CameraKeysMacros.Operation operation, int argument)
+	{
+		assertEquals(operation, program.operation(program.start(0) + index));
+		assertEquals(argument, program.argument(program.start(0) + index));
+	}
+}
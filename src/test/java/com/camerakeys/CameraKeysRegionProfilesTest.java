@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import org.junit.Test;
+
+public class CameraKeysRegionProfilesTest
+{
+	@Test
+	public void testLoad()
+	{
+		CameraKeysRegionProfiles profiles = new CameraKeysRegionProfiles();
+		profiles.load("# bank\n12598 = 700 north\n\n12850: 400\n  10547 300 West # agility\nnot a profile\n1 = 2 up\n");
+
+		assertEquals(3, profiles.size());
+		assertEquals(700, profiles.getZoom(12598));
+		assertEquals(CameraKeysPlugin.CardinalDirections.NORTH, profiles.getDirection(12598));
+		assertEquals(400, profiles.getZoom(12850));
+		assertNull(profiles.getDirection(12850));
+		assertEquals(300, profiles.getZoom(10547));
+		assertEquals(CameraKeysPlugin.CardinalDirections.WEST, profiles.getDirection(10547));
+		assertEquals(CameraKeysRegionProfiles.NO_ZOOM, profiles.getZoom(1));
+		assertEquals(CameraKeysRegionProfiles.NO_ZOOM, profiles.getZoom(12342));
+	}
+
+	@Test
+	public void testZoomBounds()
+	{
+		CameraKeysRegionProfiles profiles = new CameraKeysRegionProfiles();
+		profiles.load("1 = -273\n2 = -272\n3 = 1300\n4 = 1301 north\n5 = 99999");
+
+		assertEquals(2, profiles.size());
+		assertEquals(CameraKeysRegionProfiles.NO_ZOOM, profiles.getZoom(1));
+		assertEquals(CameraKeysConfig.MIN_ZOOM, profiles.getZoom(2));
+		assertEquals(CameraKeysConfig.MAX_ZOOM, profiles.getZoom(3));
+		assertEquals(CameraKeysRegionProfiles.NO_ZOOM, profiles.getZoom(4));
+		assertNull(profiles.getDirection(4));
+		assertEquals(CameraKeysRegionProfiles.NO_ZOOM, profiles.getZoom(5));
+	}
+
+	@Test
+	public void testReload()
+	{
+		CameraKeysRegionProfiles profiles = new CameraKeysRegionProfiles();
+		profiles.load("12598 = 700\n12598 = 650");
+		assertEquals(1, profiles.size());
+		assertEquals(650, profiles.getZoom(12598));
+
+		profiles.load("");
+		assertEquals(0, profiles.size());
+		assertEquals(CameraKeysRegionProfiles.NO_ZOOM, profiles.getZoom(12598));
+	}
+
+	@Test
+	public void testManyRegions()
+	{
+		StringBuilder text = new StringBuilder();
+		for (int region = 0; region < 1000; region++)
+		{
+			text.append(region * 65).append(" = ").append(region).append('\n');
+		}
+
+		CameraKeysRegionProfiles profiles = new CameraKeysRegionProfiles();
+		profiles.load(text.toString());
+		assertEquals(1000, profiles.size());
+		for (int region = 0; region < 1000; region++)
+		{
+			assertEquals(region, profiles.getZoom(region * 65));
+		}
+		assertEquals(CameraKeysRegionProfiles.NO_ZOOM, profiles.getZoom(1));
+	}
+}
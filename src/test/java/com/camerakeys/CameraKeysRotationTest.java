@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class CameraKeysRotationTest
+{
+	/**
+	 * 180 degrees a second, with 720 degrees a second squared.
+	 */
+	private static final double SPEED = 1024;
+	private static final double ACCELERATION = 4096;
+
+	@Test
+	public void testHoldIsFrameRateIndependent()
+	{
+		final int at20 = hold(20, TimeUnit.SECONDS.toNanos(1));
+		final int at60 = hold(60, TimeUnit.SECONDS.toNanos(1));
+		final int at144 = hold(144, TimeUnit.SECONDS.toNanos(1));
+
+		// a quarter of a second speeding up to 1024 units a second covers 128, then three quarters at full speed 768
+		assertEquals(128 + 768, at20);
+		assertEquals(at20, at60);
+		assertEquals(at20, at144);
+	}
+
+	@Test
+	public void testTurnStopsAtTheAngle()
+	{
+		for (int fps : new int[]{20, 60, 144, 1000})
+		{
+			final CameraKeysRotation rotation = new CameraKeysRotation();
+			final long frame = TimeUnit.SECONDS.toNanos(1) / fps;
+			rotation.turn(-256, 100, 0);
+
+			long now = 0;
+			int yaw = 100;
+			while (rotation.isRunning())
+			{
+				now += frame;
+				yaw = rotation.step(now, SPEED, ACCELERATION);
+			}
+			assertEquals((100 - 256) & 2047, yaw);
+		}
+	}
+
+	@Test
+	public void testTurnsAddUp()
+	{
+		final CameraKeysRotation rotation = new CameraKeysRotation();
+		rotation.turn(256, 0, 0);
+		rotation.step(TimeUnit.MILLISECONDS.toNanos(10), SPEED, 0);
+		rotation.turn(256, 0, 0);
+
+		int yaw = 0;
+		long now = TimeUnit.MILLISECONDS.toNanos(10);
+		while (rotation.isRunning())
+		{
+			now += TimeUnit.MILLISECONDS.toNanos(16);
+			yaw = rotation.step(now, SPEED, 0);
+		}
+		assertEquals(512, yaw);
+	}
+
+	@Test
+	public void testReleaseStops()
+	{
+		final CameraKeysRotation rotation = new CameraKeysRotation();
+		rotation.press(CameraKeysRotation.LEFT, 2000, 0);
+		final int yaw = rotation.step(TimeUnit.MILLISECONDS.toNanos(100), SPEED, 0);
+		assertTrue(rotation.isRunning());
+		// wraps past north
+		assertEquals((2000 + 102) & 2047, yaw);
+
+		rotation.release(CameraKeysRotation.LEFT);
+		assertEquals(yaw, rotation.step(TimeUnit.MILLISECONDS.toNanos(200), SPEED, 0));
+		assertFalse(rotation.isRunning());
+	}
+
+	@Test
+	public void testBothHeldCancelOut()
+	{
+		final CameraKeysRotation rotation = new CameraKeysRotation();
+		rotation.press(CameraKeysRotation.LEFT, 500, 0);
+		rotation.press(CameraKeysRotation.RIGHT, 500, 0);
+		assertEquals(500, rotation.step(TimeUnit.MILLISECONDS.toNanos(50), SPEED, ACCELERATION));
+		assertTrue(rotation.isRunning());
+	}
+
+	private static int hold(int fps, long durationNanos)
+	{
+		final CameraKeysRotation rotation = new CameraKeysRotation();
+		final long frame = TimeUnit.SECONDS.toNanos(1) / fps;
+		rotation.press(CameraKeysRotation.LEFT, 0, 0);
+
+		int yaw = 0;
+		for (long now = frame; now <= durationNanos; now += frame)
+		{
+			yaw = rotation.step(now, SPEED, ACCELERATION);
+		}
+		return yaw;
+	}
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import com.camerakeys.CameraKeysConfig.ActivationType;
+import com.camerakeys.CameraKeysZoomStateMachine.ZoomEvent;
+import com.camerakeys.CameraKeysZoomStateMachine.ZoomState;
+import java.util.Random;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class CameraKeysZoomStateMachineTest
+{
+	private static final int TRANSITIONS = 5_000_000;
+
+	private static final ActivationType[] ACTIVATION_TYPES = ActivationType.values();
+	private static final ZoomState[] STATES = ZoomState.values();
+	private static final ZoomEvent[] EVENTS = ZoomEvent.values();
+
+	@Test
+	public void testHold()
+	{
+		assertEquals(ZoomState.ZOOM, next(ActivationType.HOLD, ZoomState.OFF, ZoomEvent.PRESSED));
+		assertEquals(ZoomState.ON, next(ActivationType.HOLD, ZoomState.ZOOM, ZoomEvent.APPLIED));
+		assertNull(next(ActivationType.HOLD, ZoomState.ON, ZoomEvent.PRESSED));
+		assertEquals(ZoomState.RESET, next(ActivationType.HOLD, ZoomState.ON, ZoomEvent.RELEASED));
+		assertEquals(ZoomState.OFF, next(ActivationType.HOLD, ZoomState.RESET, ZoomEvent.APPLIED));
+		assertEquals(ZoomState.OFF, next(ActivationType.HOLD, ZoomState.ZOOM, ZoomEvent.RELEASED));
+		assertNull(next(ActivationType.HOLD, ZoomState.OFF, ZoomEvent.RELEASED));
+	}
+
+	@Test
+	public void testToggle()
+	{
+		assertEquals(ZoomState.ZOOM, next(ActivationType.TOGGLE, ZoomState.OFF, ZoomEvent.PRESSED));
+		assertNull(next(ActivationType.TOGGLE, ZoomState.ON, ZoomEvent.RELEASED));
+		assertEquals(ZoomState.RESET, next(ActivationType.TOGGLE, ZoomState.ON, ZoomEvent.PRESSED));
+		assertNull(next(ActivationType.TOGGLE, ZoomState.ZOOM, ZoomEvent.PRESSED));
+	}
+
+	@Test
+	public void testSet()
+	{
+		for (ZoomState state : STATES)
+		{
+			assertEquals(ZoomState.SET, next(ActivationType.SET, state, ZoomEvent.PRESSED));
+			assertNull(next(ActivationType.SET, state, ZoomEvent.RELEASED));
+		}
+		assertEquals(ZoomState.OFF, next(ActivationType.SET, ZoomState.SET, ZoomEvent.APPLIED));
+	}
+
+	@Test
+	public void testCancelAndMacro()
+	{
+		for (ActivationType activationType : ACTIVATION_TYPES)
+		{
+			assertEquals(ZoomState.OFF, next(activationType, ZoomState.ON, ZoomEvent.CANCELLED));
+			assertNull(next(activationType, ZoomState.OFF, ZoomEvent.CANCELLED));
+			for (ZoomState state : STATES)
+			{
+				if (state == ZoomState.ZOOM || state == ZoomState.ON)
+				{
+					assertNull(next(activationType, state, ZoomEvent.MACRO_SET));
+				}
+				else
+				{
+					assertEquals(ZoomState.SET, next(activationType, state, ZoomEvent.MACRO_SET));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void testMacroWhileZoomed()
+	{
+		// the macro leaves the held zoom alone, so the release still resets to the level from before the zoom
+		assertNull(next(ActivationType.HOLD, ZoomState.ON, ZoomEvent.MACRO_SET));
+		assertEquals(ZoomState.RESET, next(ActivationType.HOLD, ZoomState.ON, ZoomEvent.RELEASED));
+
+		assertNull(next(ActivationType.TOGGLE, ZoomState.ON, ZoomEvent.MACRO_SET));
+		assertEquals(ZoomState.RESET, next(ActivationType.TOGGLE, ZoomState.ON, ZoomEvent.PRESSED));
+	}
+
+	/**
+	 * Drives the table with random events and checks every transition against a switch based model of the zoom key.
+	 */
+	@Test
+	public void testRandomTransitions()
+	{
+		final Random random = new Random(20);
+		final ActivationType[] activationTypes = new ActivationType[TRANSITIONS];
+		final ZoomEvent[] events = new ZoomEvent[TRANSITIONS];
+		for (int i = 0; i < TRANSITIONS; i++)
+		{
+			activationTypes[i] = ACTIVATION_TYPES[random.nextInt(ACTIVATION_TYPES.length)];
+			events[i] = EVENTS[random.nextInt(EVENTS.length)];
+		}
+
+		ZoomState state = ZoomState.OFF;
+		int on = 0;
+		for (int i = 0; i < TRANSITIONS; i++)
+		{
+			final ZoomState next = next(activationTypes[i], state, events[i]);
+			final ZoomState expected = model(activationTypes[i], state, events[i]);
+			assertEquals(expected, next == null ? state : next);
+			if (next != null)
+			{
+				state = next;
+			}
+			if (state == ZoomState.ON)
+			{
+				on++;
+			}
+		}
+		assertTrue(on > 0);
+	}
+
+	private static ZoomState next(ActivationType activationType, ZoomState state, ZoomEvent event)
+	{
+		return CameraKeysZoomStateMachine.next(activationType, state, event);
+	}
+
+	/**
+	 * The zoom key behaviour written out as nested switches.
+	 */
+	private static ZoomState model(ActivationType activationType, ZoomState state, ZoomEvent event)
+	{
+		switch (event)
+		{
+			case APPLIED:
+				switch (state)
+				{
+					case ZOOM:
+						return ZoomState.ON;
+					case SET:
+					case RESET:
+						return ZoomState.OFF;
+					default:
+						return state;
+				}
+			case CANCELLED:
+				return state == ZoomState.ON ? ZoomState.OFF : state;
+			case MACRO_SET:
+				return state == ZoomState.ZOOM || state == ZoomState.ON ? state : ZoomState.SET;
+			default:
+				break;
+		}
+
+		final boolean pressed = event == ZoomEvent.PRESSED;
+		switch (activationType)
+		{
+			case HOLD:
+				if (pressed)
+				{
+					return state == ZoomState.ON || state == ZoomState.ZOOM ? state : ZoomState.ZOOM;
+				}
+				switch (state)
+				{
+					case ON:
+						return ZoomState.RESET;
+					case ZOOM:
+						return ZoomState.OFF;
+					default:
+						return state;
+				}
+			case TOGGLE:
+				if (!pressed)
+				{
+					return state;
+				}
+				switch (state)
+				{
+					case OFF:
+						return ZoomState.ZOOM;
+					case ON:
+						return ZoomState.RESET;
+					default:
+						return state;
+				}
+			case SET:
+				return pressed ? ZoomState.SET : state;
+			default:
+				throw new AssertionError(activationType);
+		}
+	}
+}
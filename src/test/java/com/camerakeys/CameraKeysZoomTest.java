@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package com.camerakeys;
+
+import static org.junit.Assert.assertEquals;
+import org.junit.Test;
+
+public class CameraKeysZoomTest
+{
+	@Test
+	public void testScrollCancelsAnimation() throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		harness.config.activationType = CameraKeysConfig.ActivationType.TOGGLE;
+		harness.config.zoomAnimation = true;
+		harness.config.zoomAnimationDuration = 1000;
+		harness.start();
+
+		harness.commandQueue.offer(CameraKeysCommandQueue.Command.ZOOM_PRESSED, 0, 0);
+		harness.clientTick();
+
+		// the user scrolls against the animation, after the lockout
+		final FakeClient client = harness.fakeClient;
+		final int scrolled = client.getZoom() - 200;
+		client.setZoom(scrolled);
+		harness.listener.mouseWheelMoved(CameraKeysHarness.mouseWheelEvent(1, 1000));
+		harness.clientTick();
+
+		// the animation has stopped and the zoom stays where the user put it
+		final int zoomScripts = client.zoomScripts;
+		harness.clientTick();
+		harness.clientTick();
+		assertEquals(scrolled, client.getZoom());
+		assertEquals(zoomScripts, client.zoomScripts);
+	}
+}
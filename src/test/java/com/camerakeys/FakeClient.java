@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import com.google.common.base.Defaults;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.EnumMap;
+import java.util.Map;
+import net.runelite.api.Client;
+import net.runelite.api.GameState;
+import net.runelite.api.ScriptID;
+import net.runelite.api.VarClientInt;
+import net.runelite.api.VarClientStr;
+import net.runelite.api.widgets.WidgetInfo;
+
+/**
+ * An in-memory stand-in for {@link Client}.
+ * <p>
+ * Models the client varcs, the chatbox widgets and the camera scripts the plugin uses.
+ * Every other method returns its type's default value.
+ */
+final class FakeClient implements InvocationHandler
+{
+	/**
+	 * The script id for toplevelcompassop, see {@link CameraKeysCamera}.
+	 */
+	static final int COMPASS_SCRIPT_ID = 1050;
+
+	/**
+	 * The zoom range of the client without any zoom plugins.
+	 */
+	static final int MIN_ZOOM = 128;
+	static final int MAX_ZOOM = 896;
+
+	private static final int VARC_COUNT = 8192;
+
+	final Client client = (Client) Proxy.newProxyInstance(Client.class.getClassLoader(), new Class<?>[]{Client.class}, this);
+
+	final int[] varcInts = new int[VARC_COUNT];
+	final String[] varcStrs = new String[VARC_COUNT];
+	final Map<WidgetInfo, FakeWidget> widgets = new EnumMap<>(WidgetInfo.class);
+	final int[] intStack = new int[1000];
+
+	GameState gameState = GameState.LOGGED_IN;
+	boolean resized;
+	int cameraYaw;
+	int cameraPitch = 256;
+	int intStackSize;
+
+	/**
+	 * How many times each kind of camera script has been run.
+	 */
+	int compassScripts;
+	int zoomScripts;
+
+	/**
+	 * How many times the camera yaw or pitch target has been set directly.
+	 */
+	int cameraTargetWrites;
+
+	FakeClient()
+	{
+		varcInts[VarClientInt.CAMERA_ZOOM_FIXED_VIEWPORT] = 512;
+		varcInts[VarClientInt.CAMERA_ZOOM_RESIZABLE_VIEWPORT] = 512;
+		varcStrs[VarClientStr.CHATBOX_TYPED_TEXT] = "";
+
+		FakeWidget chatboxParent = widget(WidgetInfo.CHATBOX_PARENT);
+		chatboxParent.onKeyListener = new Object[]{0};
+		widget(WidgetInfo.CHATBOX_INPUT).text = "Player: *";
+		widget(WidgetInfo.CHATBOX_MESSAGES);
+		widget(WidgetInfo.CHATBOX_TRANSPARENT_LINES);
+	}
+
+	/**
+	 * Gets a widget, creating it if it does not exist yet.
+	 *
+	 * @param widgetInfo the widget
+	 * @return the fake widget
+	 */
+	FakeWidget widget(WidgetInfo widgetInfo)
+	{
+		return widgets.computeIfAbsent(widgetInfo, w -> new FakeWidget());
+	}
+
+	/**
+	 * @return the zoom varc of the viewport the client is in
+	 */
+	int getZoomVarc()
+	{
+		return resized ? VarClientInt.CAMERA_ZOOM_RESIZABLE_VIEWPORT : VarClientInt.CAMERA_ZOOM_FIXED_VIEWPORT;
+	}
+
+	int getZoom()
+	{
+		return varcInts[getZoomVarc()];
+	}
+
+	/**
+	 * Stands in for the user scrolling the camera.
+	 *
+	 * @param zoom the new zoom level
+	 */
+	void setZoom(int zoom)
+	{
+		varcInts[getZoomVarc()] = clampZoom(zoom);
+	}
+
+	private static int clampZoom(int zoom)
+	{
+		return Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args)
+	{
+		switch (method.getName())
+		{
+			case "getWidget":
+				if (args.length == 1 && args[0] instanceof WidgetInfo)
+				{
+					FakeWidget widget = widgets.get(args[0]);
+					return widget == null ? null : widget.widget;
+				}
+				return null;
+			case "getVarcIntValue":
+				return varcInts[(int) args[0]];
+			case "setVarcIntValue":
+				varcInts[(int) args[0]] = (int) args[1];
+				return null;
+			case "getVarcStrValue":
+				return varcStrs[(int) args[0]];
+			case "setVarcStrValue":
+				varcStrs[(int) args[0]] = (String) args[1];
+				return null;
+			case "runScript":
+				runScript((Object[]) args[0]);
+				return null;
+			case "getGameState":
+				return gameState;
+			case "isResized":
+				return resized;
+			case "isClientThread":
+				return true;
+			case "getIntStack":
+				return intStack;
+			case "getIntStackSize":
+				return intStackSize;
+			case "getCameraYaw":
+			case "getCameraYawTarget":
+				return cameraYaw;
+			case "setCameraYawTarget":
+				cameraYaw = (int) args[0];
+				cameraTargetWrites++;
+				return null;
+			case "getCameraPitch":
+			case "getCameraPitchTarget":
+				return cameraPitch;
+			case "setCameraPitchTarget":
+				cameraPitch = (int) args[0];
+				cameraTargetWrites++;
+				return null;
+			case "equals":
+				return proxy == args[0];
+			case "hashCode":
+				return System.identityHashCode(proxy);
+			case "toString":
+				return "FakeClient";
+			default:
+				return Defaults.defaultValue(method.getReturnType());
+		}
+	}
+
+	private void runScript(Object[] args)
+	{
+		final int scriptId = (int) args[0];
+		if (scriptId == ScriptID.CAMERA_DO_ZOOM)
+		{
+			zoomScripts++;
+			// the script takes the fixed and the resizable zoom
+			varcInts[VarClientInt.CAMERA_ZOOM_FIXED_VIEWPORT] = clampZoom((int) args[1]);
+			varcInts[VarClientInt.CAMERA_ZOOM_RESIZABLE_VIEWPORT] = clampZoom((int) args[2]);
+		}
+		else if (scriptId == COMPASS_SCRIPT_ID)
+		{
+			compassScripts++;
+			// toplevelcompassop: 1 north, 2 east, 3 south, 4 west
+			cameraYaw = ((int) args[1] - 1) * 1536 % 2048;
+		}
+	}
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.function.BooleanSupplier;
+import net.runelite.client.callback.ClientThread;
+
+/**
+ * A {@link ClientThread} for tests, where the calling thread is the client thread unless {@link #onClientThread}
+ * is cleared.
+ * <p>
+ * {@link #invoke} runs straight away and {@link #invokeLater} waits for {@link #runQueued()}.
+ */
+final class FakeClientThread extends ClientThread
+{
+	private final Queue<BooleanSupplier> queued = new ArrayDeque<>();
+
+	/**
+	 * If the caller is on the client thread, in which case {@link #invoke(Runnable)} runs straight away
+	 * rather than being queued for {@link #runQueued()}.
+	 */
+	boolean onClientThread = true;
+
+	@Override
+	public void invoke(Runnable r)
+	{
+		if (onClientThread)
+		{
+			r.run();
+		}
+		else
+		{
+			invokeLater(r);
+		}
+	}
+
+	@Override
+	public void invoke(BooleanSupplier r)
+	{
+		if (!onClientThread || !r.getAsBoolean())
+		{
+			queued.add(r);
+		}
+	}
+
+	@Override
+	public void invokeLater(Runnable r)
+	{
+		queued.add(() ->
+		{
+			r.run();
+			return true;
+		});
+	}
+
+	@Override
+	public void invokeLater(BooleanSupplier r)
+	{
+		queued.add(r);
+	}
+
+	/**
+	 * Runs the queued tasks once, keeping the ones that ask to be run again.
+	 */
+	void runQueued()
+	{
+		for (int i = queued.size(); i > 0; i--)
+		{
+			BooleanSupplier r = queued.poll();
+			if (!r.getAsBoolean())
+			{
+				queued.add(r);
+			}
+		}
+	}
+}
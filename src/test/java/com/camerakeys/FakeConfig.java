@@ -0,0 +1,105 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import net.runelite.client.config.Keybind;
+
+/**
+ * A {@link CameraKeysConfig} with settable values, using the config defaults otherwise.
+ */
+class FakeConfig implements CameraKeysConfig
+{
+	int zoom = 800;
+	ActivationType activationType = ActivationType.HOLD;
+	boolean zoomIndicator = true;
+	boolean zoomReadout = true;
+	boolean zoomAnimation;
+	int zoomAnimationDuration = 150;
+	boolean directCamera = true;
+	Keybind macro1Key = Keybind.NOT_SET;
+	String macro1 = "";
+	String extraKeys = "";
+
+	@Override
+	public int zoom()
+	{
+		return zoom;
+	}
+
+	@Override
+	public ActivationType getActivationType()
+	{
+		return activationType;
+	}
+
+	@Override
+	public boolean isZoomIndicatorEnabled()
+	{
+		return zoomIndicator;
+	}
+
+	@Override
+	public boolean isZoomReadoutEnabled()
+	{
+		return zoomReadout;
+	}
+
+	@Override
+	public Keybind macro1Key()
+	{
+		return macro1Key;
+	}
+
+	@Override
+	public String macro1()
+	{
+		return macro1;
+	}
+
+	@Override
+	public String extraKeys()
+	{
+		return extraKeys;
+	}
+
+	@Override
+	public boolean isDirectCameraEnabled()
+	{
+		return directCamera;
+	}
+
+	@Override
+	public boolean isZoomAnimationEnabled()
+	{
+		return zoomAnimation;
+	}
+
+	@Override
+	public int zoomAnimationDuration()
+	{
+		return zoomAnimationDuration;
+	}
+}
@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.awt.event.KeyEvent;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An input session: a timestamped stream of key, chat focus, typed text and zoom scroll events,
+ * along with the config it runs with and the camera state it should end in.
+ * <p>
+ * The traces in the resources are written by hand. A session from a real client can be turned into one by
+ * dumping the event journal and running {@code CameraKeysJournalDecoder --trace} on the dump, then adding
+ * the config and expectations.
+ * <p>
+ * Traces are plain text, one entry per line. {@code #} starts a comment.
+ * <pre>
+ * fps 50                      frame rate of the simulated client, defaults to 50
+ * config activation TOGGLE    zoom key activation type
+ * config zoom 800             zoom level of the zoom key
+ * config direct false         turn the camera with the compass script instead of directly
+ * config macro M north, zoom 200   the first macro's key and operations
+ * init zoom 512               camera zoom before the session
+ * init yaw 1024               camera yaw before the session
+ * init resized true           the client is in resizable mode
+ * 0 press C                   key pressed, by KeyEvent VK_ name, at 0ms
+ * 300 release C               key released
+ * 400 focus false             chatbox gains or loses focus
+ * 500 scroll -60              user scrolls the zoom by an amount
+ * 600 text hello              typed chat text changes, the rest of the line is the text
+ * expect zoom 512             final camera zoom
+ * expect yaw 0                final camera yaw
+ * expect pitch 383            final camera pitch
+ * expect locked true          if the chat ends locked
+ * </pre>
+ */
+final class KeyTrace
+{
+	int fps = 50;
+	CameraKeysConfig.ActivationType activationType = CameraKeysConfig.ActivationType.HOLD;
+	Integer configZoom;
+	boolean directCamera = true;
+	int macroKeyCode = KeyEvent.VK_UNDEFINED;
+	String macro = "";
+	Integer initialZoom;
+	Integer initialYaw;
+	boolean resized;
+
+	final List<Event> events = new ArrayList<>();
+
+	Integer expectedZoom;
+	Integer expectedYaw;
+	Integer expectedPitch;
+	Boolean expectedLocked;
+
+	static KeyTrace load(String resource) throws IOException
+	{
+		try (InputStream in = KeyTrace.class.getResourceAsStream(resource))
+		{
+			if (in == null)
+			{
+				throw new IOException("no trace " + resource);
+			}
+			return parse(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+		}
+	}
+
+	static KeyTrace parse(BufferedReader reader) throws IOException
+	{
+		KeyTrace trace = new KeyTrace();
+		String line;
+		int lineNumber = 0;
+		while ((line = reader.readLine()) != null)
+		{
+			lineNumber++;
+			int comment = line.indexOf('#');
+			if (comment != -1)
+			{
+				line = line.substring(0, comment);
+			}
+			line = line.trim();
+			if (line.isEmpty())
+			{
+				continue;
+			}
+
+			String[] parts = line.split("\\s+", 3);
+			try
+			{
+				trace.parseLine(parts);
+			}
+			catch (RuntimeException e)
+			{
+				throw new IOException("bad trace line " + lineNumber + ": " + line, e);
+			}
+		}
+		return trace;
+	}
+
+	private void parseLine(String[] parts)
+	{
+		switch (parts[0])
+		{
+			case "fps":
+				fps = Integer.parseInt(parts[1]);
+				break;
+			case "config":
+				if (parts[1].equals("activation"))
+				{
+					activationType = CameraKeysConfig.ActivationType.valueOf(parts[2]);
+				}
+				else if (parts[1].equals("zoom"))
+				{
+					configZoom = Integer.parseInt(parts[2]);
+				}
+				else if (parts[1].equals("direct"))
+				{
+					directCamera = Boolean.parseBoolean(parts[2]);
+				}
+				else if (parts[1].equals("macro"))
+				{
+					String[] macroParts = parts[2].split("\\s+", 2);
+					macroKeyCode = keyCode(macroParts[0]);
+					macro = macroParts[1];
+				}
+				else
+				{
+					throw new IllegalArgumentException("unknown config " + parts[1]);
+				}
+				break;
+			case "init":
+				if (parts[1].equals("zoom"))
+				{
+					initialZoom = Integer.parseInt(parts[2]);
+				}
+				else if (parts[1].equals("yaw"))
+				{
+					initialYaw = Integer.parseInt(parts[2]);
+				}
+				else if (parts[1].equals("resized"))
+				{
+					resized = Boolean.parseBoolean(parts[2]);
+				}
+				else
+				{
+					throw new IllegalArgumentException("unknown init " + parts[1]);
+				}
+				break;
+			case "expect":
+				if (parts[1].equals("zoom"))
+				{
+					expectedZoom = Integer.parseInt(parts[2]);
+				}
+				else if (parts[1].equals("yaw"))
+				{
+					expectedYaw = Integer.parseInt(parts[2]);
+				}
+				else if (parts[1].equals("pitch"))
+				{
+					expectedPitch = Integer.parseInt(parts[2]);
+				}
+				else if (parts[1].equals("locked"))
+				{
+					expectedLocked = Boolean.parseBoolean(parts[2]);
+				}
+				else
+				{
+					throw new IllegalArgumentException("unknown expectation " + parts[1]);
+				}
+				break;
+			default:
+				events.add(parseEvent(Long.parseLong(parts[0]), parts[1], parts.length > 2 ? parts[2] : ""));
+				break;
+		}
+	}
+
+	private Event parseEvent(long timeMs, String type, String argument)
+	{
+		switch (type)
+		{
+			case "press":
+				return new Event(timeMs, EventType.PRESS, keyCode(argument), argument);
+			case "release":
+				return new Event(timeMs, EventType.RELEASE, keyCode(argument), argument);
+			case "focus":
+				return new Event(timeMs, EventType.FOCUS, Boolean.parseBoolean(argument) ? 1 : 0, argument);
+			case "scroll":
+				return new Event(timeMs, EventType.SCROLL, Integer.parseInt(argument), argument);
+			case "text":
+				return new Event(timeMs, EventType.TEXT, 0, argument);
+			default:
+				throw new IllegalArgumentException("unknown event " + type);
+		}
+	}
+
+	private static int keyCode(String name)
+	{
+		try
+		{
+			return KeyEvent.class.getField("VK_" + name).getInt(null);
+		}
+		catch (ReflectiveOperationException e)
+		{
+			throw new IllegalArgumentException("unknown key " + name, e);
+		}
+	}
+
+	enum EventType
+	{
+		PRESS,
+		RELEASE,
+		FOCUS,
+		SCROLL,
+		TEXT
+	}
+
+	static final class Event
+	{
+		final long timeMs;
+		final EventType type;
+		/**
+		 * The key code, focus flag or scroll amount.
+		 */
+		final int value;
+		final String argument;
+
+		Event(long timeMs, EventType type, int value, String argument)
+		{
+			this.timeMs = timeMs;
+			this.type = type;
+			this.value = value;
+			this.argument = argument;
+		}
+	}
+}
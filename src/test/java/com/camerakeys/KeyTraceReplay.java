@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
+import net.runelite.api.VarClientStr;
+import net.runelite.api.events.VarClientIntChanged;
+import net.runelite.api.widgets.WidgetInfo;
+import net.runelite.client.config.Keybind;
+
+/**
+ * Replays a {@link KeyTrace} through the key listener and the plugin on a simulated client tick clock.
+ * <p>
+ * Events are delivered, as the AWT thread would, before the first frame at or after their timestamp. After every
+ * frame the camera scripts run by the {@link FakeClient} are attributed to the key events still waiting for them,
+ * which gives the frame and simulated time at which each key's camera effect landed.
+ */
+final class KeyTraceReplay
+{
+	/**
+	 * Frames simulated after the last event so pending work can settle.
+	 */
+	private static final int SETTLE_FRAMES = 30;
+
+	private static final int GAME_TICK_MS = 600;
+
+	private static final String PRESS_ENTER_TO_CHAT = "Press Enter to Chat...";
+
+	private KeyTraceReplay()
+	{
+	}
+
+	static Result replay(KeyTrace trace) throws Exception
+	{
+		final CameraKeysHarness harness = new CameraKeysHarness();
+		final FakeClient client = harness.fakeClient;
+
+		harness.config.activationType = trace.activationType;
+		harness.config.directCamera = trace.directCamera;
+		harness.config.macro1Key = new Keybind(trace.macroKeyCode, 0);
+		harness.config.macro1 = trace.macro;
+		if (trace.configZoom != null)
+		{
+			harness.config.zoom = trace.configZoom;
+		}
+		client.resized = trace.resized;
+		if (trace.initialZoom != null)
+		{
+			client.setZoom(trace.initialZoom);
+		}
+		if (trace.initialYaw != null)
+		{
+			client.cameraYaw = trace.initialYaw;
+		}
+		harness.start();
+
+		final long frameMs = 1000 / trace.fps;
+		final long endMs = trace.events.isEmpty() ? 0 : trace.events.get(trace.events.size() - 1).timeMs;
+		final Result result = new Result(frameMs);
+		final List<Landing> pendingZoom = new ArrayList<>();
+		final List<Landing> pendingCompass = new ArrayList<>();
+
+		int nextEvent = 0;
+		for (int frame = 0; frame * frameMs <= endMs + SETTLE_FRAMES * frameMs; frame++)
+		{
+			final long nowMs = frame * frameMs;
+			while (nextEvent < trace.events.size() && trace.events.get(nextEvent).timeMs <= nowMs)
+			{
+				KeyTrace.Event event = trace.events.get(nextEvent++);
+				deliver(harness, event, frame, result, pendingZoom, pendingCompass);
+			}
+
+			final int zoomScripts = client.zoomScripts;
+			final int compassWrites = client.compassScripts + client.cameraTargetWrites;
+
+			harness.clientTick();
+			harness.clientThread.runQueued();
+			if (nowMs % GAME_TICK_MS < frameMs)
+			{
+				harness.gameTick();
+			}
+
+			if (client.zoomScripts != zoomScripts)
+			{
+				land(pendingZoom, frame, nowMs);
+			}
+			if (client.compassScripts + client.cameraTargetWrites != compassWrites)
+			{
+				land(pendingCompass, frame, nowMs);
+			}
+		}
+
+		result.zoom = client.getZoom();
+		result.yaw = client.cameraYaw;
+		result.pitch = client.cameraPitch;
+		result.zoomScripts = client.zoomScripts;
+		result.compassScripts = client.compassScripts;
+		result.cameraTargetWrites = client.cameraTargetWrites;
+		result.locked = client.widget(WidgetInfo.CHATBOX_INPUT).text.endsWith(PRESS_ENTER_TO_CHAT);
+		harness.stop();
+
+		if (trace.expectedZoom != null && trace.expectedZoom != result.zoom)
+		{
+			result.mismatches.add("zoom " + result.zoom + ", expected " + trace.expectedZoom);
+		}
+		if (trace.expectedYaw != null && trace.expectedYaw != result.yaw)
+		{
+			result.mismatches.add("yaw " + result.yaw + ", expected " + trace.expectedYaw);
+		}
+		if (trace.expectedPitch != null && trace.expectedPitch != result.pitch)
+		{
+			result.mismatches.add("pitch " + result.pitch + ", expected " + trace.expectedPitch);
+		}
+		if (trace.expectedLocked != null && trace.expectedLocked != result.locked)
+		{
+			result.mismatches.add("locked " + result.locked + ", expected " + trace.expectedLocked);
+		}
+		return result;
+	}
+
+	private static void deliver(CameraKeysHarness harness, KeyTrace.Event event, int frame, Result result,
+		List<Landing> pendingZoom, List<Landing> pendingCompass)
+	{
+		final FakeClient client = harness.fakeClient;
+		switch (event.type)
+		{
+			case PRESS:
+			{
+				KeyEvent keyEvent = CameraKeysHarness.keyEvent(KeyEvent.KEY_PRESSED, event.value, 0, event.timeMs);
+				int actions = harness.bindings.pressedActions(keyEvent);
+				harness.listener.keyPressed(keyEvent);
+				track(event, frame, actions, result, pendingZoom, pendingCompass);
+				break;
+			}
+			case RELEASE:
+			{
+				KeyEvent keyEvent = CameraKeysHarness.keyEvent(KeyEvent.KEY_RELEASED, event.value, 0, event.timeMs);
+				int actions = harness.bindings.releasedActions(keyEvent) & CameraKeysBindings.Action.ZOOM.mask;
+				harness.listener.keyReleased(keyEvent);
+				if (harness.config.activationType == CameraKeysConfig.ActivationType.HOLD)
+				{
+					track(event, frame, actions, result, pendingZoom, pendingCompass);
+				}
+				break;
+			}
+			case FOCUS:
+				client.widget(WidgetInfo.CHATBOX_PARENT).onKeyListener = event.value == 1 ? new Object[]{0} : null;
+				break;
+			case SCROLL:
+				// the wheel event reaches the listener, then the game applies the scroll to the zoom
+				harness.listener.mouseWheelMoved(CameraKeysHarness.mouseWheelEvent(event.value > 0 ? -1 : 1, event.timeMs));
+				client.setZoom(client.getZoom() + event.value);
+				harness.plugin.onVarClientIntChanged(new VarClientIntChanged(client.getZoomVarc()));
+				break;
+			case TEXT:
+				client.varcStrs[VarClientStr.CHATBOX_TYPED_TEXT] = event.argument;
+				break;
+		}
+	}
+
+	private static void track(KeyTrace.Event event, int frame, int actions, Result result,
+		List<Landing> pendingZoom, List<Landing> pendingCompass)
+	{
+		if (actions == 0)
+		{
+			return;
+		}
+
+		Landing landing = new Landing(event.type + " " + event.argument, event.timeMs, frame);
+		result.landings.add(landing);
+		if ((actions & CameraKeysBindings.Action.ZOOM.mask) != 0)
+		{
+			pendingZoom.add(landing);
+		}
+		else
+		{
+			pendingCompass.add(landing);
+		}
+	}
+
+	private static void land(List<Landing> pending, int frame, long nowMs)
+	{
+		for (Landing landing : pending)
+		{
+			landing.frames = frame - landing.deliveredFrame + 1;
+			landing.latencyMs = nowMs - landing.timeMs;
+		}
+		pending.clear();
+	}
+
+	/**
+	 * When the camera effect of one key event landed.
+	 */
+	static final class Landing
+	{
+		final String event;
+		final long timeMs;
+		final int deliveredFrame;
+
+		/**
+		 * Frames from the event to the frame its effect landed in, 1 being the next frame. -1 if it never landed.
+		 */
+		int frames = -1;
+
+		/**
+		 * Simulated milliseconds from the event to the end of the frame its effect landed in. -1 if it never landed.
+		 */
+		long latencyMs = -1;
+
+		Landing(String event, long timeMs, int deliveredFrame)
+		{
+			this.event = event;
+			this.timeMs = timeMs;
+			this.deliveredFrame = deliveredFrame;
+		}
+
+		boolean landed()
+		{
+			return frames != -1;
+		}
+
+		@Override
+		public String toString()
+		{
+			return timeMs + "ms " + event + ": " + (landed() ? frames + " frames, " + latencyMs + "ms" : "no effect");
+		}
+	}
+
+	static final class Result
+	{
+		final long frameMs;
+		final List<Landing> landings = new ArrayList<>();
+		final List<String> mismatches = new ArrayList<>();
+		int zoom;
+		int yaw;
+		int pitch;
+		boolean locked;
+		int zoomScripts;
+		int compassScripts;
+		int cameraTargetWrites;
+
+		Result(long frameMs)
+		{
+			this.frameMs = frameMs;
+		}
+
+		boolean matches()
+		{
+			return mismatches.isEmpty();
+		}
+
+		@Override
+		public String toString()
+		{
+			StringBuilder sb = new StringBuilder();
+			for (Landing landing : landings)
+			{
+				sb.append(landing).append('\n');
+			}
+			sb.append("final zoom ").append(zoom).append(", yaw ").append(yaw).append(", pitch ").append(pitch).append(", locked ").append(locked);
+			sb.append("\nscripts run: ").append(zoomScripts).append(" zoom, ").append(compassScripts).append(" compass");
+			sb.append("\ncamera targets set: ").append(cameraTargetWrites);
+			for (String mismatch : mismatches)
+			{
+				sb.append("\nmismatch: ").append(mismatch);
+			}
+			return sb.toString();
+		}
+	}
+}
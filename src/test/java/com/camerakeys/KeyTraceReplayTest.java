@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2021, neilrush <neileorushio@gmail.com>
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright notice, this
+ *    list of conditions and the following disclaimer.
+ * 2. Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND
+ * ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE IMPLIED
+ * WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE LIABLE FOR
+ * ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES;
+ * LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND
+ * ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+ * (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE OF THIS
+ * SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.camerakeys;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class KeyTraceReplayTest
+{
+	@Test
+	public void testHoldZoom() throws Exception
+	{
+		replay("hold_zoom", 2);
+	}
+
+	@Test
+	public void testHoldTap() throws Exception
+	{
+		replay("hold_tap", 0);
+	}
+
+	@Test
+	public void testToggleZoom() throws Exception
+	{
+		replay("toggle_zoom", 1);
+	}
+
+	@Test
+	public void testToggleZoomTwice() throws Exception
+	{
+		replay("toggle_zoom_twice", 2);
+	}
+
+	@Test
+	public void testSetZoom() throws Exception
+	{
+		replay("set_zoom", 1);
+	}
+
+	@Test
+	public void testScrollCancel() throws Exception
+	{
+		replay("scroll_cancel", 2);
+	}
+
+	@Test
+	public void testScrollCancelHighFps() throws Exception
+	{
+		replay("scroll_cancel_144fps", 2);
+	}
+
+	@Test
+	public void testScrollCancelLowFps() throws Exception
+	{
+		replay("scroll_cancel_20fps", 2);
+	}
+
+	@Test
+	public void testScrollCancelResizable() throws Exception
+	{
+		replay("scroll_cancel_resizable", 2);
+	}
+
+	@Test
+	public void testCompassMash() throws Exception
+	{
+		KeyTraceReplay.Result result = replay("compass_mash", 6);
+		// presses within the same frame share one camera target write
+		assertEquals(3, result.cameraTargetWrites);
+		assertEquals(0, result.compassScripts);
+	}
+
+	@Test
+	public void testCompassMashScript() throws Exception
+	{
+		KeyTraceReplay.Result result = replay("compass_mash_script", 6);
+		// presses within the same frame share one compass script
+		assertEquals(3, result.compassScripts);
+		assertEquals(0, result.cameraTargetWrites);
+	}
+
+	@Test
+	public void testMacro() throws Exception
+	{
+		KeyTraceReplay.Result result = replay("macro", 1);
+		// the compass, pitch and zoom all land together
+		assertEquals(2, result.cameraTargetWrites);
+		assertEquals(1, result.zoomScripts);
+	}
+
+	@Test
+	public void testMacroWhileHeld() throws Exception
+	{
+		KeyTraceReplay.Result result = replay("macro_while_held", 3);
+		// only the zoom key's zoom and its reset
+		assertEquals(2, result.zoomScripts);
+	}
+
+	@Test
+	public void testTyping() throws Exception
+	{
+		replay("typing", 1);
+	}
+
+	@Test
+	public void testTypingBackspace() throws Exception
+	{
+		replay("typing_backspace", 0);
+	}
+
+	@Test
+	public void testUnfocused() throws Exception
+	{
+		replay("unfocused", 0);
+	}
+
+	/**
+	 * Replays a trace and checks it ends in the expected camera state with every key effect landing on the next frame.
+	 *
+	 * @param name    the trace name
+	 * @param landed  how many key events should have had a camera effect
+	 */
+	private static KeyTraceReplay.Result replay(String name, int landed) throws Exception
+	{
+		KeyTraceReplay.Result result = KeyTraceReplay.replay(KeyTrace.load("traces/" + name + ".trace"));
+		// the whole replay is the failure message, rather than printing it for every trace
+		final String replayed = name + ":\n" + result;
+
+		assertTrue(replayed, result.matches());
+
+		int count = 0;
+		for (KeyTraceReplay.Landing landing : result.landings)
+		{
+			if (landing.landed())
+			{
+				assertEquals(landing + "\n" + replayed, 1, landing.frames);
+				assertTrue(landing + "\n" + replayed, landing.latencyMs < result.frameMs);
+				count++;
+			}
+		}
+		assertEquals(replayed, landed, count);
+		return result;
+	}
+}